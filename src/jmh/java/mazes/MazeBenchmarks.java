@@ -0,0 +1,188 @@
+package mazes;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import javalib.impworld.WorldScene;
+
+// measures the phases of generating, solving and drawing mazes: the grid, the
+// sorted edges, Kruskal's union-find pass, each generator, the solution, each
+// search to the goal, the path index and its queries, and the scene. Every
+// benchmark runs on square mazes from 10x10 to 2000x2000 made from a fixed
+// seed, and any setup it needs happens outside the measured call. Run with
+//   gradle jmh --args='[benchmark regex] [-p size=100,1000] [-p threads=4]'
+// The scene benchmarks draw through javalib and need it on the classpath
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss8m")
+public class MazeBenchmarks {
+  static final int QUERIES = 1000; // path queries one call of queries answers
+
+  // a generated and solved maze of every size
+  @State(Scope.Thread)
+  public static class Sized {
+    @Param({ "10", "100", "500", "1000", "2000" })
+    public int size;
+
+    @Param({ "1" })
+    public long seed;
+
+    @Param({ "1" })
+    public int threads; // generates and searches big mazes across this many
+
+    MazeCore core;
+
+    @Setup(Level.Trial)
+    public void build() {
+      this.core = new MazeCore(this.size, this.size, new Random(this.seed), this.threads);
+    }
+  }
+
+  // the sorted edges of a maze, unioned again on a cleared grid each call
+  @State(Scope.Thread)
+  public static class Unioning {
+    @Setup(Level.Trial)
+    public void sort(Sized maze) {
+      maze.core.rand.setSeed(maze.seed);
+      maze.core.representatives = new UnionFind(maze.core.grid.size());
+      maze.core.worklist = maze.core.sortEdges(maze.core.makeUnsortedEdges());
+    }
+
+    @Setup(Level.Invocation)
+    public void clear(Sized maze) {
+      maze.core.grid.clear();
+      maze.core.representatives.reset();
+    }
+  }
+
+  // one of the generators, run again on a cleared grid each call
+  @State(Scope.Thread)
+  public static class Generating {
+    @Param({ "kruskal", "backtracker", "wilson" })
+    public String generator;
+
+    IMazeGenerator maker;
+
+    @Setup(Level.Trial)
+    public void choose(Sized maze) {
+      this.maker = MazeCore.generator(this.generator, maze.threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear(Sized maze) {
+      maze.core.grid.clear();
+      maze.core.rand.setSeed(maze.seed);
+    }
+  }
+
+  // one of the searches, run from the top left until it reaches the goal
+  @State(Scope.Thread)
+  public static class Searching {
+    @Param({ "bfs", "dfs", "astar", "bidi" })
+    public String solver;
+
+    SearchState state;
+
+    @Setup(Level.Trial)
+    public void allocate(Sized maze) {
+      this.state = new SearchState(maze.core.grid.size(), new Queue(), maze.core.storage);
+    }
+  }
+
+  // a maze drawn once already, so only what changes is drawn again
+  @State(Scope.Thread)
+  public static class Drawn {
+    Maze maze;
+
+    @Setup(Level.Trial)
+    public void draw(Sized maze) {
+      this.maze = new Maze(maze.core);
+      this.maze.makeScene();
+    }
+  }
+
+  // a maze not drawn yet, so its first scene rasterizes everything
+  @State(Scope.Thread)
+  public static class Undrawn {
+    Maze maze;
+
+    @Setup(Level.Invocation)
+    public void open(Sized maze) {
+      this.maze = new Maze(maze.core);
+    }
+  }
+
+  @Benchmark
+  public MazeGrid grid(Sized maze) {
+    return new MazeGrid(maze.size, maze.size);
+  }
+
+  @Benchmark
+  public int[] edges(Sized maze) {
+    maze.core.rand.setSeed(maze.seed);
+    return maze.core.sortEdges(maze.core.makeUnsortedEdges());
+  }
+
+  @Benchmark
+  public MazeGrid kruskal(Sized maze, Unioning unioning) {
+    maze.core.unionFindData();
+    return maze.core.grid;
+  }
+
+  @Benchmark
+  public MazeGrid generate(Sized maze, Generating generating) {
+    generating.maker.generate(maze.core);
+    return maze.core.grid;
+  }
+
+  @Benchmark
+  public int solve(Sized maze) {
+    maze.core.makeSolution();
+    return maze.core.solutionLength;
+  }
+
+  @Benchmark
+  public int search(Sized maze, Searching searching) {
+    return maze.core.search(searching.solver, searching.state);
+  }
+
+  @Benchmark
+  public PathIndex index(Sized maze) {
+    maze.core.pathsCurrent = false;
+    return maze.core.pathIndex();
+  }
+
+  @Benchmark
+  public void queries(Sized maze, Blackhole sink) {
+    PathIndex paths = maze.core.pathIndex();
+    Random rand = new Random(maze.seed);
+    int cells = maze.core.grid.size();
+    for (int i = 0; i < QUERIES; i += 1) {
+      sink.consume(paths.pathLength(rand.nextInt(cells), rand.nextInt(cells)));
+    }
+  }
+
+  @Benchmark
+  public WorldScene scene(Undrawn undrawn) {
+    return undrawn.maze.makeScene();
+  }
+
+  @Benchmark
+  public WorldScene redraw(Drawn drawn) {
+    return drawn.maze.makeScene();
+  }
+}
@@ -0,0 +1,5765 @@
+package mazes;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import tester.*;
+import javalib.impworld.*;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import javax.imageio.ImageIO;
+import javalib.worldimages.*;
+
+// represents the cells of a width x height maze and the passages between them.
+// Cell (x, y) has index y * width + x, and the edge leaving a cell to its right
+// or downwards has index cell * 2 or cell * 2 + 1. Only one bit per edge is
+// stored, so neighbors are found by arithmetic on the cell index
+class MazeGrid {
+  int width;
+  int height;
+  ICellSet right; // open passages from each cell to the cell to its right
+  ICellSet down; // open passages from each cell to the cell below it
+
+  // constructor, every passage starts out walled off
+  MazeGrid(int width, int height) {
+    this(width, height, new HeapStorage());
+  }
+
+  // constructor, every passage starts out walled off, kept in the given storage
+  MazeGrid(int width, int height, ICellStorage storage) {
+    this.width = width;
+    this.height = height;
+    this.right = storage.cellSet(width * height);
+    this.down = storage.cellSet(width * height);
+  }
+
+  // returns the index of the edge between the given neighboring cells
+  int edgeBetween(int a, int b) {
+    int first = Math.min(a, b);
+    return Math.abs(a - b) == 1 ? first * 2 : first * 2 + 1;
+  }
+
+  // EFFECT: walls off every passage
+  void clear() {
+    this.right.clear();
+    this.down.clear();
+  }
+
+  // returns the number of cells in this grid
+  int size() {
+    return this.width * this.height;
+  }
+
+  // returns the index of the cell at the given coordinates
+  int cell(int x, int y) {
+    return y * this.width + x;
+  }
+
+  // returns the column of the given cell
+  int x(int cell) {
+    return cell % this.width;
+  }
+
+  // returns the row of the given cell
+  int y(int cell) {
+    return cell / this.width;
+  }
+
+  // is the passage from the given cell to the cell to its right open?
+  boolean hasRight(int cell) {
+    return this.right.contains(cell);
+  }
+
+  // is the passage from the given cell to the cell below it open?
+  boolean hasDown(int cell) {
+    return this.down.contains(cell);
+  }
+
+  // is the passage from the given cell to the cell to its left open?
+  // a right passage is never opened out of the last column, so the first
+  // column needs no separate check
+  boolean hasLeft(int cell) {
+    return cell > 0 && this.right.contains(cell - 1);
+  }
+
+  // is the passage from the given cell to the cell above it open?
+  boolean hasUp(int cell) {
+    return cell >= this.width && this.down.contains(cell - this.width);
+  }
+
+  // returns the number of open passages out of the given cell
+  int degree(int cell) {
+    int degree = 0;
+    if (this.hasUp(cell)) {
+      degree += 1;
+    }
+    if (this.hasLeft(cell)) {
+      degree += 1;
+    }
+    if (this.hasRight(cell)) {
+      degree += 1;
+    }
+    if (this.hasDown(cell)) {
+      degree += 1;
+    }
+    return degree;
+  }
+
+  // does the given edge index name an edge inside this grid?
+  boolean hasEdge(int edge) {
+    int cell = edge >> 1;
+    if ((edge & 1) == 0) {
+      return cell % this.width < this.width - 1;
+    }
+    else {
+      return cell < this.size() - this.width;
+    }
+  }
+
+  // returns the cell at the far end of the given edge
+  int otherEnd(int edge) {
+    if ((edge & 1) == 0) {
+      return (edge >> 1) + 1;
+    }
+    else {
+      return (edge >> 1) + this.width;
+    }
+  }
+
+  // is the given edge an open passage?
+  boolean isOpen(int edge) {
+    if ((edge & 1) == 0) {
+      return this.right.contains(edge >> 1);
+    }
+    else {
+      return this.down.contains(edge >> 1);
+    }
+  }
+
+  // EFFECT: opens the passage along the given edge
+  void open(int edge) {
+    if ((edge & 1) == 0) {
+      this.right.add(edge >> 1);
+    }
+    else {
+      this.down.add(edge >> 1);
+    }
+  }
+
+  // returns the indices of every open passage in increasing order
+  int[] edgesInTree() {
+    int count = 0;
+    for (int edge = 0; edge < this.size() * 2; edge += 1) {
+      if (this.isOpen(edge)) {
+        count += 1;
+      }
+    }
+    int[] edges = new int[count];
+    int next = 0;
+    for (int edge = 0; edge < this.size() * 2; edge += 1) {
+      if (this.isOpen(edge)) {
+        edges[next] = edge;
+        next += 1;
+      }
+    }
+    return edges;
+  }
+}
+
+// represents the rendering-free part of a maze: a random spanning tree of its
+// grid, built with Kruskal's algorithm unless another generator is given, and
+// the solution from the top left to the bottom right. Nothing here depends on
+// javalib, so it can run headless
+class MazeCore {
+  static final String[] SOLVERS = { "bfs", "dfs", "astar", "bidi" };
+  static final String[] GENERATORS = { "kruskal", "backtracker", "wilson" };
+
+  int width;
+  int height;
+  Random rand;
+  IMazeGenerator generator;
+  ICellStorage storage; // where the grid and the solver keep their cells
+  int parallelism; // threads to search big mazes breadth first with
+  ForkJoinPool pool; // generates and searches big mazes, made when first needed, or null
+  ParallelKruskal boruvka; // generates big mazes across threads, or null
+  MazeGrid grid;
+  UnionFind representatives;
+  byte[] weights; // the weight of every edge index, refilled for each maze
+  int[] starts; // scratch space for sortEdges
+  int[] worklist; // all edges in the grid, sorted by edge weights
+  SearchState solver; // scratch space reused by makeSolution
+  ICellInts distances; // steps from every cell to the bottom right, -1 if unreachable
+  ICellInts solutionCells; // cells from the bottom right back to the top left, then unused
+  int solutionLength; // how many of solutionCells are on the solution
+  ICellSet onSolution;
+  MazeMetrics metrics; // time spent and work done building, solving and drawing
+  PathIndex paths; // answers path queries, built when first asked for, or null
+  boolean pathsCurrent; // is paths built for this maze rather than an earlier one?
+
+  // constructor, generates and solves a maze of the given dimensions
+  MazeCore(int width, int height, Random rand) {
+    this(width, height, rand, 1);
+  }
+
+  // constructor, generates a maze of the given dimensions with Kruskal's
+  // algorithm on the given number of threads and solves it
+  MazeCore(int width, int height, Random rand, int parallelism) {
+    this(width, height, rand, new KruskalGenerator(parallelism), new HeapStorage(),
+        parallelism);
+  }
+
+  // constructor, generates a maze of the given dimensions with the given
+  // generator and solves it
+  MazeCore(int width, int height, Random rand, IMazeGenerator generator) {
+    this(width, height, rand, generator, new HeapStorage());
+  }
+
+  // constructor, generates a maze of the given dimensions with the given
+  // generator and solves it, keeping its cells in the given storage
+  MazeCore(int width, int height, Random rand, IMazeGenerator generator,
+      ICellStorage storage) {
+    this(width, height, rand, generator, storage, 1);
+  }
+
+  // constructor, generates a maze of the given dimensions with the given
+  // generator and solves it with the given number of threads, keeping its
+  // cells in the given storage
+  MazeCore(int width, int height, Random rand, IMazeGenerator generator,
+      ICellStorage storage, int parallelism) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A maze needs at least one cell, not " + width + "x"
+          + height);
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Cannot search with " + parallelism + " threads");
+    }
+    this.parallelism = parallelism;
+    this.width = width;
+    this.height = height;
+    this.rand = rand;
+    this.generator = generator;
+    this.storage = storage;
+    this.metrics = new MazeMetrics(width * height);
+    long started = System.nanoTime();
+    this.grid = new MazeGrid(width, height, storage);
+    this.metrics.stop(MazeMetrics.GRID, started);
+    this.generate();
+    this.solver = new SearchState(width * height, new Queue(), storage);
+    this.distances = storage.cellInts(width * height);
+    this.solutionCells = storage.cellInts(width * height);
+    this.onSolution = storage.cellSet(width * height);
+    this.makeSolution();
+  }
+
+  // constructor, loads the maze saved in the given file instead of generating
+  // one, and only solves it if the file has no solution saved. Resetting
+  // generates new mazes from the seed the saved maze was made with
+  MazeCore(MazeFile file) {
+    this(file, new KruskalGenerator(1), new HeapStorage());
+  }
+
+  // constructor, loads the maze saved in the given file into the given storage,
+  // solving it only if the file has no solution saved. Resetting generates new
+  // mazes with the given generator from the seed the saved maze was made with
+  MazeCore(MazeFile file, IMazeGenerator generator, ICellStorage storage) {
+    long started = System.nanoTime();
+    this.grid = file.toGrid(storage);
+    this.width = this.grid.width;
+    this.height = this.grid.height;
+    this.metrics = new MazeMetrics(this.grid.size());
+    this.metrics.stop(MazeMetrics.GRID, started);
+    this.rand = new Random(file.seed);
+    this.generator = generator;
+    this.storage = storage;
+    this.parallelism = 1;
+    this.solver = new SearchState(this.grid.size(), new Queue(), storage);
+    this.distances = storage.cellInts(this.grid.size());
+    this.solutionCells = storage.cellInts(this.grid.size());
+    this.onSolution = storage.cellSet(this.grid.size());
+    if (file.hasSolution()) {
+      this.measureDistances();
+      int[] saved = file.solution();
+      for (int i = 0; i < saved.length; i += 1) {
+        this.solutionCells.set(i, saved[i]);
+        this.onSolution.add(saved[i]);
+      }
+      this.solutionLength = saved.length;
+    }
+    else {
+      this.makeSolution();
+    }
+  }
+
+  // constructor for a carver, which only generates mazes with the given
+  // generator into the grid it is given, starting with the given one. It keeps
+  // none of the buffers that solve a maze, so it must not be asked to
+  MazeCore(MazeGrid grid, Random rand, IMazeGenerator generator) {
+    this.grid = grid;
+    this.width = grid.width;
+    this.height = grid.height;
+    this.rand = rand;
+    this.generator = generator;
+    this.storage = new HeapStorage();
+    this.parallelism = 1;
+    this.metrics = new MazeMetrics(grid.size());
+  }
+
+  // returns the generator with the given name, one of GENERATORS, running on
+  // the given number of threads if it can
+  static IMazeGenerator generator(String name, int threads) {
+    if (name.equals("kruskal")) {
+      return new KruskalGenerator(threads);
+    }
+    else if (name.equals("backtracker")) {
+      return new BacktrackerGenerator();
+    }
+    else if (name.equals("wilson")) {
+      return new WilsonGenerator();
+    }
+    else {
+      throw new IllegalArgumentException("Unknown generator: " + name);
+    }
+  }
+
+  // EFFECT: opens the passages of a random spanning tree of this maze's grid
+  // with its generator
+  void generate() {
+    this.generator.generate(this);
+  }
+
+  // EFFECT: opens the passages of a random spanning tree of this maze's grid
+  // with Kruskal's algorithm, spreading the work across threads when there are
+  // several and the maze is big enough to make up for it. Both ways give the
+  // same maze for the same rand
+  void generateKruskal(int parallelism) {
+    long started = System.nanoTime();
+    byte[] weights = this.makeUnsortedEdges();
+    this.metrics.stop(MazeMetrics.EDGES, started);
+    if (parallelism > 1 && this.grid.size() >= ParallelKruskal.MIN_CELLS) {
+      if (this.boruvka == null || this.boruvka.grid != this.grid) {
+        this.boruvka = new ParallelKruskal(this.grid, this.pool(parallelism));
+      }
+      started = System.nanoTime();
+      this.boruvka.run(weights);
+      this.metrics.stop(MazeMetrics.KRUSKAL, started);
+      this.metrics.unions += this.grid.size() - 1;
+    }
+    else {
+      if (this.representatives == null) {
+        this.representatives = new UnionFind(this.grid.size());
+      }
+      else {
+        this.representatives.reset();
+      }
+      started = System.nanoTime();
+      this.worklist = this.sortEdges(weights);
+      this.metrics.stop(MazeMetrics.SORT, started);
+      started = System.nanoTime();
+      this.unionFindData();
+      this.metrics.stop(MazeMetrics.KRUSKAL, started);
+      this.metrics.findHops += this.representatives.hops;
+      this.metrics.unions += this.grid.size() - this.representatives.sets;
+    }
+  }
+
+  // EFFECT: replaces this maze with the next one rand makes, refilling the
+  // grid, the buffers used to generate and solve it, and the solution in place.
+  // Generating on one thread, this allocates nothing
+  void regenerate() {
+    long started = System.nanoTime();
+    this.grid.clear();
+    this.metrics.stop(MazeMetrics.GRID, started);
+    this.generate();
+    this.makeSolution();
+    this.pathsCurrent = false;
+  }
+
+  // returns the index answering path queries between any two cells of this
+  // maze, building it if this maze does not have one yet
+  PathIndex pathIndex() {
+    if (this.paths == null) {
+      this.paths = new PathIndex(this);
+    }
+    else if (!this.pathsCurrent) {
+      this.paths.build();
+    }
+    this.pathsCurrent = true;
+    return this.paths;
+  }
+
+  // returns a random weight for every edge index of this maze's grid, or -1 for
+  // indices that do not name an edge inside the grid, in the weights buffer
+  byte[] makeUnsortedEdges() {
+    if (this.weights == null) {
+      this.weights = new byte[this.grid.size() * 2];
+    }
+    byte[] weights = this.weights;
+    // for every cell of this maze, weighs the edges to its right and below it
+    for (int cell = 0; cell < this.grid.size(); cell += 1) {
+      // not right edge
+      if (this.grid.hasEdge(cell * 2)) {
+        weights[cell * 2] = (byte) this.rand.nextInt(50);
+      }
+      else {
+        weights[cell * 2] = -1;
+      }
+      // not bottom edge
+      if (this.grid.hasEdge(cell * 2 + 1)) {
+        weights[cell * 2 + 1] = (byte) this.rand.nextInt(50);
+      }
+      else {
+        weights[cell * 2 + 1] = -1;
+      }
+    }
+    return weights;
+  }
+
+  // returns the indices of the weighted edges sorted by their weights in
+  // increasing order, ties kept in index order, using a counting sort since edge
+  // weights only span a small range
+  // reusing the worklist's array when the number of edges has not changed
+  int[] sortEdges(byte[] weights) {
+    // starts[w + 1] counts the edges with weight w, then becomes the first
+    // position of the edges with weight w + 1
+    if (this.starts == null) {
+      this.starts = new int[Byte.MAX_VALUE + 2];
+    }
+    int[] starts = this.starts;
+    Arrays.fill(starts, 0);
+    for (byte w : weights) {
+      if (w >= 0) {
+        starts[w + 1] += 1;
+      }
+    }
+    for (int w = 1; w < starts.length; w += 1) {
+      starts[w] += starts[w - 1];
+    }
+    int count = starts[starts.length - 1];
+    int[] sorted = this.worklist != null && this.worklist.length == count ? this.worklist
+        : new int[count];
+    for (int edge = 0; edge < weights.length; edge += 1) {
+      if (weights[edge] >= 0) {
+        sorted[starts[weights[edge]]] = edge;
+        starts[weights[edge]] += 1;
+      }
+    }
+    return sorted;
+  }
+
+  // EFFECT: opens the passages of a spanning tree of this maze's grid, taking
+  // edges from the worklist in order and stopping once every cell is connected
+  void unionFindData() {
+    int treeSize = this.grid.size() - 1;
+    int accepted = 0;
+    for (int next = 0; next < this.worklist.length && accepted < treeSize; next += 1) {
+      int edge = this.worklist[next];
+      if (this.representatives.union(edge >> 1, this.grid.otherEnd(edge))) {
+        this.grid.open(edge);
+        accepted += 1;
+      }
+    }
+  }
+
+  // EFFECT: finds the path from the bottom right back to the top left of this
+  // maze with a breadth-first search out from the bottom right, measuring the
+  // distances of every cell, and writes it to solutionCells, marking its cells
+  // in onSolution
+  void makeSolution() {
+    this.onSolution.clear();
+    this.measureDistances();
+    // the search never got to the start if its distance is -1
+    this.solutionLength = this.distances.get(0) + 1;
+    // the search came to every cell from the next cell on the way to the goal
+    for (int cell = 0; this.solutionLength > 0 && cell != -1;
+        cell = this.solver.cameFrom.get(cell)) {
+      this.solutionCells.set(this.distances.get(cell), cell);
+      this.onSolution.add(cell);
+    }
+  }
+
+  // returns the cells on the path from the bottom right back to the top left
+  int[] solution() {
+    int[] cells = new int[this.solutionLength];
+    for (int i = 0; i < cells.length; i += 1) {
+      cells[i] = this.solutionCells.get(i);
+    }
+    return cells;
+  }
+
+  // EFFECT: sets the distance of every cell to the bottom right, the number of
+  // steps a player needs from there to the exit, by a breadth-first search out
+  // from the bottom right, and -1 for cells it cannot reach. Big mazes are
+  // searched a level at a time across threads, if this maze has several
+  void measureDistances() {
+    long started = System.nanoTime();
+    int goal = this.grid.size() - 1;
+    this.distances.fill(-1);
+    if (this.searchesInParallel()) {
+      new ParallelSearch(this, this.solver, this.searchPool()).run(goal, -1, this.distances);
+    }
+    else {
+      this.solver.reset(this.solver.worklist, goal);
+      while (!this.solver.worklist.isEmpty()) {
+        int next = this.solver.worklist.remove();
+        if (!this.solver.seen.contains(next)) {
+          int from = this.solver.cameFrom.get(next);
+          this.distances.set(next, from == -1 ? 0 : this.distances.get(from) + 1);
+          this.expand(next, this.solver);
+        }
+      }
+    }
+    this.metrics.expanded += this.solver.expanded;
+    this.metrics.stop(MazeMetrics.SOLVE, started);
+  }
+
+  // are breadth-first searches of this maze run across threads? Only when it
+  // has several and is big enough to make up for handing levels out to them
+  boolean searchesInParallel() {
+    return this.parallelism > 1 && this.grid.size() >= ParallelSearch.MIN_CELLS;
+  }
+
+  // returns the pool that generates and searches this maze across threads,
+  // making it with the given number of threads the first time one is needed,
+  // so that regenerating reuses its threads. They end by themselves once the
+  // pool has been idle for a while
+  ForkJoinPool pool(int threads) {
+    if (this.pool == null) {
+      this.pool = new ForkJoinPool(threads);
+    }
+    return this.pool;
+  }
+
+  // returns the pool that searches this maze across threads
+  ForkJoinPool searchPool() {
+    return this.pool(this.parallelism);
+  }
+
+  // returns the number of steps from the given cell to the bottom right, or -1
+  // if there is no way there
+  int distanceToGoal(int cell) {
+    return this.distances.get(cell);
+  }
+
+  // returns the number of cells the given search expanded before the bottom
+  // right came up, or -1 if it never did
+  // EFFECT: runs the given search from the top left with the given worklist
+  int searchToGoal(SearchState state, ICollection worklist) {
+    int goal = this.grid.size() - 1;
+    state.reset(worklist, 0);
+    while (!state.worklist.isEmpty()) {
+      int next = state.worklist.remove();
+      if (next == goal) {
+        return state.expanded;
+      }
+      else if (!state.seen.contains(next)) {
+        this.expand(next, state);
+      }
+    }
+    return -1;
+  }
+
+  // returns the number of cells the named search expanded before reaching the
+  // bottom right, or -1 if it never did. Searched across threads, "bfs"
+  // expands the same cells in the same order as it does on one
+  // EFFECT: runs the named search, one of SOLVERS, with the given state
+  int search(String solver, SearchState state) {
+    if (solver.equals("bfs") && this.searchesInParallel()) {
+      return new ParallelSearch(this, state, this.searchPool()).run(0, this.grid.size() - 1,
+          null);
+    }
+    else if (solver.equals("bfs")) {
+      return this.searchToGoal(state, new Queue());
+    }
+    else if (solver.equals("dfs")) {
+      return this.searchToGoal(state, new Stack());
+    }
+    else if (solver.equals("astar")) {
+      return this.searchToGoal(state, new AStarQueue(this.width, this.height));
+    }
+    else if (solver.equals("bidi")) {
+      BidirectionalSearch meeting = new BidirectionalSearch(this, state);
+      while (!meeting.done()) {
+        meeting.step();
+      }
+      return meeting.met() ? state.expanded : -1;
+    }
+    else {
+      throw new IllegalArgumentException("Unknown solver: " + solver);
+    }
+  }
+
+  // EFFECT: expands the given cell in the given search, queuing every neighbor
+  // reachable through an open passage that the search has not expanded yet
+  void expand(int cell, SearchState state) {
+    state.expand(cell);
+    if (this.grid.hasUp(cell)) {
+      state.discover(cell - this.width, cell);
+    }
+    if (this.grid.hasLeft(cell)) {
+      state.discover(cell - 1, cell);
+    }
+    if (this.grid.hasRight(cell)) {
+      state.discover(cell + 1, cell);
+    }
+    if (this.grid.hasDown(cell)) {
+      state.discover(cell + this.width, cell);
+    }
+  }
+
+  // returns the number of dead ends of this maze, cells with a single passage
+  int deadEnds() {
+    int count = 0;
+    for (int cell = 0; cell < this.grid.size(); cell += 1) {
+      if (this.grid.degree(cell) == 1) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  // EFFECT: writes this maze to the given output as text, one line of cells
+  // and one line of walls below them per row
+  void writeText(Appendable out) throws IOException {
+    out.append('+');
+    for (int x = 0; x < this.width; x += 1) {
+      out.append("--+");
+    }
+    out.append('\n');
+    for (int y = 0; y < this.height; y += 1) {
+      out.append('|');
+      for (int x = 0; x < this.width; x += 1) {
+        out.append(this.grid.hasRight(this.grid.cell(x, y)) ? "   " : "  |");
+      }
+      out.append("\n+");
+      for (int x = 0; x < this.width; x += 1) {
+        out.append(this.grid.hasDown(this.grid.cell(x, y)) ? "  +" : "--+");
+      }
+      out.append('\n');
+    }
+  }
+}
+
+// Represents a way of generating perfect mazes
+interface IMazeGenerator {
+  // EFFECT: opens the passages of a random spanning tree of the given maze's
+  // grid, which starts out walled off, drawing from the maze's rand
+  void generate(MazeCore core);
+}
+
+// generates mazes with Kruskal's algorithm over random edge weights, on one
+// thread or, for big mazes, across a fork-join pool
+class KruskalGenerator implements IMazeGenerator {
+  int parallelism; // threads used to generate the maze
+
+  // constructor
+  KruskalGenerator(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Cannot generate with " + parallelism + " threads");
+    }
+    this.parallelism = parallelism;
+  }
+
+  public void generate(MazeCore core) {
+    core.generateKruskal(this.parallelism);
+  }
+}
+
+// generates mazes with a randomized depth-first search, the recursive
+// backtracker, run on an explicit stack: it walks to a random unvisited
+// neighbor while there is one, and backs up when there is not. The mazes have
+// long winding corridors and few dead ends
+class BacktrackerGenerator implements IMazeGenerator {
+  ICellInts stack; // the cells of the current walk from the top left
+  ICellSet visited;
+  int[] choices; // the unvisited neighbors of the cell on top of the stack
+
+  public void generate(MazeCore core) {
+    long started = System.nanoTime();
+    MazeGrid grid = core.grid;
+    if (this.stack == null || this.stack.length() != grid.size()) {
+      this.stack = core.storage.cellInts(grid.size());
+      this.visited = core.storage.cellSet(grid.size());
+      this.choices = new int[4];
+    }
+    this.visited.clear();
+    this.stack.set(0, 0);
+    this.visited.add(0);
+    int size = 1;
+    while (size > 0) {
+      int cell = this.stack.get(size - 1);
+      int count = this.unvisitedNeighbors(grid, cell);
+      if (count == 0) {
+        size -= 1;
+      }
+      else {
+        int next = this.choices[count == 1 ? 0 : core.rand.nextInt(count)];
+        grid.open(grid.edgeBetween(cell, next));
+        this.visited.add(next);
+        this.stack.set(size, next);
+        size += 1;
+      }
+    }
+    core.metrics.stop(MazeMetrics.CARVE, started);
+  }
+
+  // returns how many neighbors of the given cell are unvisited
+  // EFFECT: puts them at the front of choices
+  int unvisitedNeighbors(MazeGrid grid, int cell) {
+    int count = 0;
+    int x = grid.x(cell);
+    if (cell >= grid.width && !this.visited.contains(cell - grid.width)) {
+      this.choices[count] = cell - grid.width;
+      count += 1;
+    }
+    if (x > 0 && !this.visited.contains(cell - 1)) {
+      this.choices[count] = cell - 1;
+      count += 1;
+    }
+    if (x < grid.width - 1 && !this.visited.contains(cell + 1)) {
+      this.choices[count] = cell + 1;
+      count += 1;
+    }
+    if (cell + grid.width < grid.size() && !this.visited.contains(cell + grid.width)) {
+      this.choices[count] = cell + grid.width;
+      count += 1;
+    }
+    return count;
+  }
+}
+
+// generates mazes with Wilson's algorithm, which picks every spanning tree of
+// the grid with the same probability. From each cell not yet in the maze it
+// walks at random until it reaches the maze, remembering only the last way out
+// of every cell so loops are erased, then opens the walk into the maze
+class WilsonGenerator implements IMazeGenerator {
+  ICellInts next; // the way the current walk last left each cell
+  ICellSet inMaze;
+
+  public void generate(MazeCore core) {
+    long started = System.nanoTime();
+    MazeGrid grid = core.grid;
+    if (this.next == null || this.next.length() != grid.size()) {
+      this.next = core.storage.cellInts(grid.size());
+      this.inMaze = core.storage.cellSet(grid.size());
+    }
+    this.inMaze.clear();
+    this.inMaze.add(grid.size() - 1);
+    for (int start = 0; start < grid.size(); start += 1) {
+      int cell = start;
+      while (!this.inMaze.contains(cell)) {
+        this.next.set(cell, this.randomNeighbor(grid, cell, core.rand));
+        cell = this.next.get(cell);
+      }
+      for (cell = start; !this.inMaze.contains(cell); cell = this.next.get(cell)) {
+        this.inMaze.add(cell);
+        grid.open(grid.edgeBetween(cell, this.next.get(cell)));
+      }
+    }
+    core.metrics.stop(MazeMetrics.CARVE, started);
+  }
+
+  // returns a neighbor of the given cell inside the grid, each one as likely
+  int randomNeighbor(MazeGrid grid, int cell, Random rand) {
+    if (grid.size() == 1) {
+      return cell;
+    }
+    while (true) {
+      int direction = rand.nextInt(4);
+      if (direction == 0 && cell >= grid.width) {
+        return cell - grid.width;
+      }
+      else if (direction == 1 && grid.x(cell) > 0) {
+        return cell - 1;
+      }
+      else if (direction == 2 && grid.x(cell) < grid.width - 1) {
+        return cell + 1;
+      }
+      else if (direction == 3 && cell + grid.width < grid.size()) {
+        return cell + grid.width;
+      }
+    }
+  }
+}
+
+// times the phases of building, solving and drawing a maze and counts the work
+// they do, so that a slow reset or solve can be traced to its phase. Every
+// timed phase is also recorded as a MazePhaseEvent for JDK Flight Recorder
+class MazeMetrics {
+  static final String[] PHASES = { "grid", "edges", "sort", "kruskal", "solve", "scene",
+      "carve" };
+  static final int GRID = 0;
+  static final int EDGES = 1;
+  static final int SORT = 2;
+  static final int KRUSKAL = 3;
+  static final int SOLVE = 4;
+  static final int SCENE = 5;
+  static final int CARVE = 6; // generating with anything but Kruskal's algorithm
+  // checked before making an event, so that nothing is allocated unless a
+  // recording wants phase events
+  static final EventType PHASE_EVENTS = EventType.getEventType(MazePhaseEvent.class);
+
+  int cells; // the size of the maze measured
+  long[] nanos; // the time spent in each phase so far
+  int[] runs; // how many times each phase ran
+  long findHops; // parent links followed looking up sets while building
+  long unions; // sets joined while building
+  long expanded; // cells expanded by solving and searching
+  int images; // images allocated to draw the last frame
+
+  // constructor for a maze of the given size
+  MazeMetrics(int cells) {
+    this.cells = cells;
+    this.nanos = new long[PHASES.length];
+    this.runs = new int[PHASES.length];
+  }
+
+  // EFFECT: records a run of the given phase from the given System.nanoTime()
+  // until now
+  void stop(int phase, long started) {
+    long elapsed = System.nanoTime() - started;
+    this.nanos[phase] += elapsed;
+    this.runs[phase] += 1;
+    if (PHASE_EVENTS.isEnabled()) {
+      MazePhaseEvent event = new MazePhaseEvent();
+      event.phase = PHASES[phase];
+      event.cells = this.cells;
+      event.nanos = elapsed;
+      event.commit();
+    }
+  }
+
+  // returns a copy of these metrics as they are now
+  MazeMetrics snapshot() {
+    MazeMetrics copy = new MazeMetrics(this.cells);
+    copy.nanos = this.nanos.clone();
+    copy.runs = this.runs.clone();
+    copy.findHops = this.findHops;
+    copy.unions = this.unions;
+    copy.expanded = this.expanded;
+    copy.images = this.images;
+    return copy;
+  }
+
+  // returns the time spent in every phase as one line of text
+  String describeTimes() {
+    StringBuilder line = new StringBuilder();
+    for (int phase = 0; phase < PHASES.length; phase += 1) {
+      line.append(phase == 0 ? "" : " ").append(PHASES[phase]).append('=')
+          .append(String.format("%.3f", this.nanos[phase] / 1e6)).append("ms");
+    }
+    return line.toString();
+  }
+
+  // returns the counters as one line of text
+  String describeCounts() {
+    return "findHops=" + this.findHops + " unions=" + this.unions + " expanded="
+        + this.expanded + " images=" + this.images;
+  }
+}
+
+// a JDK Flight Recorder event for one run of a phase measured by MazeMetrics
+@Name("mazes.Phase")
+@Label("Maze Phase")
+@Category("Mazes")
+@Description("One phase of building, solving or drawing a maze")
+class MazePhaseEvent extends Event {
+  @Label("Phase")
+  String phase;
+
+  @Label("Cells")
+  int cells;
+
+  @Label("Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long nanos;
+}
+
+// builds the same spanning tree of a grid as Kruskal's algorithm does over the
+// given edge weights, with Boruvka's algorithm run across a fork-join pool.
+// Edges are ordered by weight and then by index, the order sortEdges leaves
+// them in, so every edge has a distinct key and both build the one minimum
+// spanning tree: the same weights give the same maze for any number of threads.
+// Each round every component picks its lightest edge out, the components
+// joined by those edges are merged by pointer jumping, and edges left inside a
+// component are dropped
+class ParallelKruskal {
+  static final int MIN_CELLS = 1 << 16; // smaller grids are faster sequentially
+  static final int CHUNK = 1 << 12; // edges per chunk, and the smallest task
+  static final int SCAN = 0;
+  static final int HOOK = 1;
+  static final int BREAK = 2;
+  static final int JUMP = 3;
+  static final int RELABEL = 4;
+  static final long NONE = Long.MAX_VALUE;
+
+  MazeGrid grid;
+  ForkJoinPool pool; // runs the phases of every round
+  byte[] weights;
+  int[] edges; // edges that may still join two components, CHUNK per chunk
+  int[] alive; // how many edges at the front of each chunk are still live
+  int[] comp; // the root of the component of every cell
+  int[] next; // for every root, the root of the component it joins
+  AtomicLongArray best; // for every root, the key of its lightest edge out
+  int[] roots;
+  int rootCount;
+  AtomicBoolean changed;
+
+  // constructor
+  ParallelKruskal(MazeGrid grid, ForkJoinPool pool) {
+    this.grid = grid;
+    this.pool = pool;
+    this.changed = new AtomicBoolean();
+  }
+
+  // EFFECT: opens the passages of the minimum spanning tree of the given
+  // weights in the grid, reusing the arrays of the last run, which was over
+  // the same grid
+  void run(byte[] weights) {
+    int cells = this.grid.size();
+    int count = 0;
+    this.weights = weights;
+    if (this.edges == null || this.edges.length != weights.length) {
+      this.edges = new int[weights.length];
+    }
+    for (int edge = 0; edge < this.weights.length; edge += 1) {
+      if (this.weights[edge] >= 0) {
+        this.edges[count] = edge;
+        count += 1;
+      }
+    }
+    int chunks = (count + CHUNK - 1) / CHUNK;
+    if (this.alive == null || this.alive.length != chunks) {
+      this.alive = new int[chunks];
+    }
+    for (int chunk = 0; chunk < this.alive.length; chunk += 1) {
+      this.alive[chunk] = Math.min(CHUNK, count - chunk * CHUNK);
+    }
+    if (this.comp == null || this.comp.length != cells) {
+      this.comp = new int[cells];
+      this.next = new int[cells];
+      this.roots = new int[cells];
+      this.best = new AtomicLongArray(cells);
+    }
+    for (int cell = 0; cell < cells; cell += 1) {
+      this.comp[cell] = cell;
+      this.roots[cell] = cell;
+      this.best.set(cell, NONE);
+    }
+    this.rootCount = cells;
+    while (this.rootCount > 1 && this.round()) {
+      // keep merging until one component is left
+    }
+  }
+
+  // returns whether any component found an edge out of itself this round
+  // EFFECT: merges every component with the one across its lightest edge
+  boolean round() {
+    ForkJoinPool pool = this.pool;
+    pool.invoke(new BoruvkaTask(this, SCAN, 0, this.alive.length));
+    pool.invoke(new BoruvkaTask(this, HOOK, 0, this.rootCount));
+    pool.invoke(new BoruvkaTask(this, BREAK, 0, this.rootCount));
+    boolean joined = false;
+    for (int i = 0; i < this.rootCount; i += 1) {
+      long key = this.best.get(this.roots[i]);
+      if (key != NONE) {
+        this.grid.open((int) key);
+        joined = true;
+      }
+    }
+    do {
+      this.changed.set(false);
+      pool.invoke(new BoruvkaTask(this, JUMP, 0, this.rootCount));
+    } while (this.changed.get());
+    pool.invoke(new BoruvkaTask(this, RELABEL, 0, this.grid.size()));
+    int kept = 0;
+    for (int i = 0; i < this.rootCount; i += 1) {
+      int root = this.roots[i];
+      if (this.next[root] == root) {
+        this.roots[kept] = root;
+        this.best.set(root, NONE);
+        kept += 1;
+      }
+    }
+    this.rootCount = kept;
+    return joined;
+  }
+
+  // EFFECT: runs the given phase of a round over the indices [lo, hi), which
+  // are chunks for SCAN, cells for RELABEL and positions in roots otherwise
+  void runPhase(int phase, int lo, int hi) {
+    for (int i = lo; i < hi; i += 1) {
+      if (phase == SCAN) {
+        this.scan(i);
+      }
+      else if (phase == HOOK) {
+        int root = this.roots[i];
+        long key = this.best.get(root);
+        if (key == NONE) {
+          this.next[root] = root;
+        }
+        else {
+          int from = this.comp[(int) key >> 1];
+          this.next[root] = from == root ? this.comp[this.grid.otherEnd((int) key)] : from;
+        }
+      }
+      else if (phase == BREAK) {
+        // two components that picked the same edge point at each other, and
+        // the smaller root stays a root
+        int root = this.roots[i];
+        int other = this.next[root];
+        if (root < other && this.next[other] == root) {
+          this.next[root] = root;
+        }
+      }
+      else if (phase == JUMP) {
+        int root = this.roots[i];
+        int skip = this.next[this.next[root]];
+        if (skip != this.next[root]) {
+          this.next[root] = skip;
+          this.changed.set(true);
+        }
+      }
+      else {
+        this.comp[i] = this.next[this.comp[i]];
+      }
+    }
+  }
+
+  // EFFECT: offers every live edge of the given chunk to the components at
+  // both of its ends, dropping the edges that no longer join two components
+  void scan(int chunk) {
+    int base = chunk * CHUNK;
+    int kept = 0;
+    for (int i = 0; i < this.alive[chunk]; i += 1) {
+      int edge = this.edges[base + i];
+      int from = this.comp[edge >> 1];
+      int to = this.comp[this.grid.otherEnd(edge)];
+      if (from != to) {
+        long key = (long) this.weights[edge] << 32 | edge;
+        this.offer(from, key);
+        this.offer(to, key);
+        this.edges[base + kept] = edge;
+        kept += 1;
+      }
+    }
+    this.alive[chunk] = kept;
+  }
+
+  // EFFECT: makes the given key the lightest edge out of the given root if it
+  // is lighter than the one found so far
+  void offer(int root, long key) {
+    long current = this.best.get(root);
+    while (key < current && !this.best.compareAndSet(root, current, key)) {
+      current = this.best.get(root);
+    }
+  }
+}
+
+// searches a maze breadth first one level at a time, handing the cells of each
+// wide level out to a fork-join pool in chunks. A thread claims a cell of the
+// next level by setting its bit in a shared bitset with compare-and-set, so
+// every cell is claimed once, and records the cell it was reached from. Each
+// chunk puts the cells it reaches in its own part of a scratch buffer, and the
+// parts are then appended to the next level in the order of the chunks. The
+// next level so comes out in the order a queue would reach it, and the whole
+// search gives the same order, distances and paths as the sequential one
+class ParallelSearch {
+  static final int MIN_CELLS = 1 << 16; // smaller mazes are faster sequentially
+  static final int CHUNK = 1 << 10; // cells of a level per task
+  // the most cells a chunk reaches: a cell of a tree has at most four
+  // neighbors, one of them its parent unless it is the start
+  static final int REACH = CHUNK * 3 + 1;
+
+  MazeCore core;
+  SearchState state; // where the levels and the cells reached from are kept
+  ForkJoinPool pool; // expands the wide levels
+  AtomicLongArray claimed; // a bit for every cell a level has taken
+  int[] found; // REACH cells for every chunk of a level, grown as levels widen
+  int[] counts; // how many cells each chunk of a level reached
+  int levelStart; // the level being expanded, in state.order
+  int levelEnd;
+  int tail; // the end of the next level in state.order
+  ICellInts depths; // where to write the level of every cell, or null
+  int level; // the level being found
+
+  // constructor
+  ParallelSearch(MazeCore core, SearchState state, ForkJoinPool pool) {
+    this.core = core;
+    this.state = state;
+    this.pool = pool;
+  }
+
+  // returns the number of cells a queue expands before the given goal, or -1
+  // if it is never reached. A goal of -1 searches the whole maze and returns
+  // the number of cells reached
+  // EFFECT: searches from the given start, putting every cell reached in the
+  // state's order, level by level, recording where it was reached from, and its
+  // level in the given depths unless they are null. Leaves the state as a
+  // queue would when the goal comes up: the cells before it seen, and the rest
+  // of its level, then the cells they reach, in the worklist
+  int run(int start, int goal, ICellInts depths) {
+    int cells = this.core.grid.size();
+    this.claimed = new AtomicLongArray((cells + 63) >> 6);
+    this.found = new int[REACH];
+    this.counts = new int[(cells + CHUNK - 1) / CHUNK];
+    this.tail = 1;
+    this.depths = depths;
+    this.level = 0;
+    this.state.worklist.clear();
+    this.state.seen.clear();
+    this.state.order.set(0, start);
+    this.state.cameFrom.set(start, -1);
+    this.claim(start);
+    if (depths != null) {
+      depths.set(start, 0);
+    }
+    this.levelStart = 0;
+    this.levelEnd = 1;
+    while (this.levelStart < this.levelEnd && !(goal >= 0 && this.isClaimed(goal))) {
+      this.level += 1;
+      this.expandLevel();
+      this.levelStart = this.levelEnd;
+      this.levelEnd = this.tail;
+    }
+    boolean found = goal >= 0 && this.isClaimed(goal);
+    int expanded = this.levelEnd;
+    if (found) {
+      expanded = this.levelStart;
+      while (this.state.order.get(expanded) != goal) {
+        expanded += 1;
+      }
+      for (int i = expanded + 1; i < this.levelEnd; i += 1) {
+        this.state.worklist.add(this.state.order.get(i));
+      }
+      // the cells ahead of the goal have queued the cells they reach
+      this.level += 1;
+      for (int lo = this.levelStart; lo < expanded; lo += CHUNK) {
+        int count = this.claimFrom(lo, Math.min(lo + CHUNK, expanded), 0);
+        for (int i = 0; i < count; i += 1) {
+          this.state.worklist.add(this.found[i]);
+        }
+      }
+    }
+    this.state.expanded = expanded;
+    for (int i = 0; i < expanded; i += 1) {
+      this.state.seen.add(this.state.order.get(i));
+    }
+    return goal >= 0 && !found ? -1 : expanded;
+  }
+
+  // EFFECT: expands the level [levelStart, levelEnd) of state.order, claiming
+  // the unclaimed neighbors of its cells and appending them to the next level
+  void expandLevel() {
+    int chunks = (this.levelEnd - this.levelStart + CHUNK - 1) / CHUNK;
+    // a narrow level is quicker to expand here than to hand to the pool
+    if (chunks == 1) {
+      this.counts[0] = this.claimFrom(this.levelStart, this.levelEnd, 0);
+    }
+    else {
+      if (this.found.length < chunks * REACH) {
+        this.found = new int[Math.max(chunks, this.found.length / REACH * 2) * REACH];
+      }
+      this.pool.invoke(new FrontierTask(this, 0, chunks));
+    }
+    for (int chunk = 0; chunk < chunks; chunk += 1) {
+      for (int i = 0; i < this.counts[chunk]; i += 1) {
+        this.state.order.set(this.tail + i, this.found[chunk * REACH + i]);
+      }
+      this.tail += this.counts[chunk];
+    }
+  }
+
+  // EFFECT: expands the given chunk of the current level, putting the cells it
+  // reaches in its part of found
+  void expandChunk(int chunk) {
+    int lo = this.levelStart + chunk * CHUNK;
+    this.counts[chunk] = this.claimFrom(lo, Math.min(lo + CHUNK, this.levelEnd),
+        chunk * REACH);
+  }
+
+  // returns whether the given cell was unclaimed, claiming it for the caller
+  // EFFECT: sets the cell's bit in claimed
+  boolean claim(int cell) {
+    int word = cell >> 6;
+    long bit = 1L << cell;
+    long current = this.claimed.get(word);
+    while ((current & bit) == 0) {
+      if (this.claimed.compareAndSet(word, current, current | bit)) {
+        return true;
+      }
+      current = this.claimed.get(word);
+    }
+    return false;
+  }
+
+  // has some level claimed the given cell?
+  boolean isClaimed(int cell) {
+    return (this.claimed.get(cell >> 6) & (1L << cell)) != 0;
+  }
+
+  // returns the neighbor of the given cell through its passage up, left, right
+  // or down for the given direction 0 to 3, or -1 if that way is walled off
+  int neighbor(int cell, int direction) {
+    MazeGrid grid = this.core.grid;
+    if (direction == 0) {
+      return grid.hasUp(cell) ? cell - grid.width : -1;
+    }
+    else if (direction == 1) {
+      return grid.hasLeft(cell) ? cell - 1 : -1;
+    }
+    else if (direction == 2) {
+      return grid.hasRight(cell) ? cell + 1 : -1;
+    }
+    else {
+      return grid.hasDown(cell) ? cell + grid.width : -1;
+    }
+  }
+
+  // returns the number of cells the cells [lo, hi) of state.order claim, at
+  // most a chunk of them
+  // EFFECT: claims every unclaimed neighbor of those cells in the order a
+  // queue reaches them, recording the cell it was reached from and its level,
+  // and puts them in found from the given position on
+  int claimFrom(int lo, int hi, int at) {
+    int count = 0;
+    for (int i = lo; i < hi; i += 1) {
+      int cell = this.state.order.get(i);
+      for (int direction = 0; direction < 4; direction += 1) {
+        int next = this.neighbor(cell, direction);
+        if (next >= 0 && this.claim(next)) {
+          this.state.cameFrom.set(next, cell);
+          if (this.depths != null) {
+            this.depths.set(next, this.level);
+          }
+          this.found[at + count] = next;
+          count += 1;
+        }
+      }
+    }
+    return count;
+  }
+}
+
+// a fork-join task that expands the chunks [lo, hi) of a level of a
+// ParallelSearch, splitting the range in halves down to a chunk
+class FrontierTask extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  ParallelSearch owner;
+  int lo;
+  int hi;
+
+  // constructor
+  FrontierTask(ParallelSearch owner, int lo, int hi) {
+    this.owner = owner;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  protected void compute() {
+    if (this.hi - this.lo <= 1) {
+      this.owner.expandChunk(this.lo);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(new FrontierTask(this.owner, this.lo, mid),
+          new FrontierTask(this.owner, mid, this.hi));
+    }
+  }
+}
+
+// a fork-join task that runs one phase of a ParallelKruskal round over the
+// indices [lo, hi), splitting the range in halves down to small pieces
+class BoruvkaTask extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  ParallelKruskal owner;
+  int phase;
+  int lo;
+  int hi;
+
+  // constructor
+  BoruvkaTask(ParallelKruskal owner, int phase, int lo, int hi) {
+    this.owner = owner;
+    this.phase = phase;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  protected void compute() {
+    int grain = this.phase == ParallelKruskal.SCAN ? 1 : ParallelKruskal.CHUNK;
+    if (this.hi - this.lo <= grain) {
+      this.owner.runPhase(this.phase, this.lo, this.hi);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(new BoruvkaTask(this.owner, this.phase, this.lo, mid),
+          new BoruvkaTask(this.owner, this.phase, mid, this.hi));
+    }
+  }
+}
+
+// generates a maze one row at a time with Eller's algorithm, keeping only a
+// row's worth of state so mazes of any height stream through in O(width)
+// memory. Every column carries the label of the set of cells it is connected
+// to above; each row joins some neighboring sets, then drops at least one
+// passage down from every set, and columns without one start a new set. The
+// last row joins every set left, so the maze is a spanning tree like the ones
+// MazeCore builds, and the same rand always streams the same maze
+class EllerGenerator {
+  int width;
+  int height;
+  Random rand;
+  int[] sets; // the set label of every column in the current row
+  int[] counts; // how many columns of the current row are left in each set
+  boolean[] joined; // whether each set has a passage down to the next row
+  int[] free; // labels that no column carries into the next row
+  UnionFind merges; // the sets joined within the current row
+  CellSet right; // the passages right out of the cells of the current row
+  CellSet down; // the passages down out of the cells of the current row
+
+  // constructor
+  EllerGenerator(int width, int height, Random rand) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A maze needs at least one cell, not " + width + "x"
+          + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.rand = rand;
+    this.sets = new int[width];
+    this.counts = new int[width];
+    this.joined = new boolean[width];
+    this.free = new int[width];
+    this.merges = new UnionFind(width);
+    this.right = new CellSet(width);
+    this.down = new CellSet(width);
+  }
+
+  // EFFECT: generates the maze, handing each row to the sink top to bottom.
+  // The sets a row is handed over in are reused for the next row
+  void generate(IRowSink sink) throws IOException {
+    for (int x = 0; x < this.width; x += 1) {
+      this.sets[x] = x;
+    }
+    for (int y = 0; y < this.height; y += 1) {
+      boolean last = y == this.height - 1;
+      this.right.clear();
+      this.down.clear();
+      this.joinRow(last);
+      if (!last) {
+        this.dropDown();
+      }
+      sink.row(y, this.right, this.down);
+      if (!last) {
+        this.nextRow();
+      }
+    }
+  }
+
+  // EFFECT: opens passages between neighboring columns of different sets, at
+  // random or, on the last row, all of them, and merges their sets
+  void joinRow(boolean last) {
+    this.merges.reset();
+    for (int x = 0; x + 1 < this.width; x += 1) {
+      int a = this.merges.find(this.sets[x]);
+      int b = this.merges.find(this.sets[x + 1]);
+      if (a != b && (last || this.rand.nextBoolean())) {
+        this.right.add(x);
+        this.merges.union(a, b);
+      }
+    }
+    for (int x = 0; x < this.width; x += 1) {
+      this.sets[x] = this.merges.find(this.sets[x]);
+    }
+  }
+
+  // EFFECT: opens passages down at random, and always out of the last column
+  // of a set that has none yet
+  void dropDown() {
+    Arrays.fill(this.counts, 0);
+    Arrays.fill(this.joined, false);
+    for (int x = 0; x < this.width; x += 1) {
+      this.counts[this.sets[x]] += 1;
+    }
+    for (int x = 0; x < this.width; x += 1) {
+      int set = this.sets[x];
+      this.counts[set] -= 1;
+      if (this.rand.nextBoolean() || (this.counts[set] == 0 && !this.joined[set])) {
+        this.down.add(x);
+        this.joined[set] = true;
+      }
+    }
+  }
+
+  // EFFECT: moves on to the next row, where columns below a passage keep their
+  // set and the others each start a new one under an unused label
+  void nextRow() {
+    Arrays.fill(this.joined, false);
+    for (int x = 0; x < this.width; x += 1) {
+      if (this.down.contains(x)) {
+        this.joined[this.sets[x]] = true;
+      }
+    }
+    int unused = 0;
+    for (int label = 0; label < this.width; label += 1) {
+      if (!this.joined[label]) {
+        this.free[unused] = label;
+        unused += 1;
+      }
+    }
+    for (int x = 0; x < this.width; x += 1) {
+      if (!this.down.contains(x)) {
+        unused -= 1;
+        this.sets[x] = this.free[unused];
+      }
+    }
+  }
+}
+
+// Represents where the rows of a streamed maze go
+interface IRowSink {
+  // EFFECT: takes in row y of the maze, given by the columns with a passage
+  // right and the columns with a passage down
+  void row(int y, CellSet right, CellSet down) throws IOException;
+}
+
+// writes streamed rows as text in the same format as MazeCore.writeText
+class TextRowSink implements IRowSink {
+  Appendable out;
+  int width;
+
+  // constructor
+  TextRowSink(Appendable out, int width) {
+    this.out = out;
+    this.width = width;
+  }
+
+  // EFFECT: writes the row, after the top wall if it is the first one
+  public void row(int y, CellSet right, CellSet down) throws IOException {
+    if (y == 0) {
+      this.out.append('+');
+      for (int x = 0; x < this.width; x += 1) {
+        this.out.append("--+");
+      }
+      this.out.append('\n');
+    }
+    this.out.append('|');
+    for (int x = 0; x < this.width; x += 1) {
+      this.out.append(right.contains(x) ? "   " : "  |");
+    }
+    this.out.append("\n+");
+    for (int x = 0; x < this.width; x += 1) {
+      this.out.append(down.contains(x) ? "  +" : "--+");
+    }
+    this.out.append('\n');
+  }
+}
+
+// writes mazes in the binary maze file format as a stream, one cell at a time.
+// A maze file holds, in big-endian order:
+//   a 32 byte header: the magic number "MAZE", the format version, flags,
+//     the width, the height, 4 reserved bytes and the seed
+//   the wall bitmap: one bit per edge index, set for an open passage, packed
+//     into longs so bit i of long k is edge 64 * k + i
+//   if the HAS_SOLUTION flag is set, the length of the solution and its cells
+//     from the bottom right back to the top left, as ints
+class MazeFileWriter implements IRowSink, Closeable {
+  DataOutputStream out;
+  int width;
+  long word; // the bits of the bitmap long being filled
+  int bits; // how many bits of that long are filled
+  long words; // how many longs of the bitmap are written
+
+  // constructor
+  // EFFECT: writes the header of a maze file to the given stream
+  MazeFileWriter(OutputStream out, int width, int height, long seed, int flags)
+      throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    this.width = width;
+    this.out.writeInt(MazeFile.MAGIC);
+    this.out.writeInt(MazeFile.VERSION);
+    this.out.writeInt(flags);
+    this.out.writeInt(width);
+    this.out.writeInt(height);
+    this.out.writeInt(0);
+    this.out.writeLong(seed);
+  }
+
+  // EFFECT: writes the passages out of the next cell to the bitmap
+  void cell(boolean right, boolean down) throws IOException {
+    if (right) {
+      this.word |= 1L << this.bits;
+    }
+    if (down) {
+      this.word |= 1L << (this.bits + 1);
+    }
+    this.bits += 2;
+    if (this.bits == 64) {
+      this.flush();
+    }
+  }
+
+  // EFFECT: writes the passages out of the cells of a streamed row
+  public void row(int y, CellSet right, CellSet down) throws IOException {
+    for (int x = 0; x < this.width; x += 1) {
+      this.cell(right.contains(x), down.contains(x));
+    }
+  }
+
+  // EFFECT: writes the partly filled last long of the bitmap, if there is one
+  void endBitmap() throws IOException {
+    if (this.bits > 0) {
+      this.flush();
+    }
+  }
+
+  // EFFECT: writes the long being filled and starts the next one
+  void flush() throws IOException {
+    this.out.writeLong(this.word);
+    this.word = 0;
+    this.bits = 0;
+    this.words += 1;
+  }
+
+  // EFFECT: ends the bitmap and writes the given solution after it
+  void solution(int[] cells) throws IOException {
+    this.endBitmap();
+    this.out.writeInt(cells.length);
+    for (int cell : cells) {
+      this.out.writeInt(cell);
+    }
+  }
+
+  // EFFECT: ends the bitmap and closes the stream
+  public void close() throws IOException {
+    this.endBitmap();
+    this.out.close();
+  }
+}
+
+// a maze file mapped into memory, read in place so that only the regions of a
+// large maze that are looked at are ever paged in from disk. See
+// MazeFileWriter for the format
+class MazeFile {
+  static final int MAGIC = 0x4D415A45; // "MAZE"
+  static final int VERSION = 1;
+  static final int HAS_SOLUTION = 1;
+  static final int HEADER_BYTES = 32;
+  static final long REGION_BYTES = 1L << 30; // a single mapping holds at most 2GB
+
+  int flags;
+  int width;
+  int height;
+  long seed;
+  long bitmapWords;
+  MappedByteBuffer[] regions; // the file, REGION_BYTES at a time
+
+  // constructor, maps the file at the given path
+  MazeFile(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IOException("Not a maze file: " + path);
+      }
+      this.regions = new MappedByteBuffer[(int) ((size + REGION_BYTES - 1) / REGION_BYTES)];
+      for (int i = 0; i < this.regions.length; i += 1) {
+        long start = i * REGION_BYTES;
+        this.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(REGION_BYTES, size - start));
+      }
+      if (this.intAt(0) != MAGIC) {
+        throw new IOException("Not a maze file: " + path);
+      }
+      if (this.intAt(4) != VERSION) {
+        throw new IOException("Unsupported maze file version: " + this.intAt(4));
+      }
+      this.flags = this.intAt(8);
+      this.width = this.intAt(12);
+      this.height = this.intAt(16);
+      this.seed = this.longAt(24);
+      this.bitmapWords = ((long) this.width * this.height * 2 + 63) / 64;
+      long needed = HEADER_BYTES + this.bitmapWords * 8 + (this.hasSolution() ? 4 : 0);
+      if (this.width < 1 || this.height < 1 || size < needed
+          || this.hasSolution() && size < needed + 4L * this.intAt(needed - 4)) {
+        throw new IOException("Truncated maze file: " + path);
+      }
+      // a solution visits every cell at most once
+      if (this.hasSolution() && (this.intAt(needed - 4) < 0
+          || this.intAt(needed - 4) > (long) this.width * this.height)) {
+        throw new IOException("Corrupt maze file: " + path);
+      }
+      for (int i = 0; this.hasSolution() && i < this.intAt(needed - 4); i += 1) {
+        int cell = this.intAt(needed + 4L * i);
+        if (cell < 0 || cell >= (long) this.width * this.height) {
+          throw new IOException("Corrupt maze file: " + path);
+        }
+      }
+    }
+  }
+
+  // EFFECT: writes the given maze to the file at the given path, with its
+  // solution if asked to
+  static void write(MazeCore core, long seed, boolean withSolution, Path path)
+      throws IOException {
+    try (MazeFileWriter out = new MazeFileWriter(Files.newOutputStream(path), core.width,
+        core.height, seed, withSolution ? HAS_SOLUTION : 0)) {
+      for (int cell = 0; cell < core.grid.size(); cell += 1) {
+        out.cell(core.grid.hasRight(cell), core.grid.hasDown(cell));
+      }
+      if (withSolution) {
+        out.solution(core.solution());
+      }
+    }
+  }
+
+  // returns the int at the given offset into the file
+  int intAt(long offset) {
+    return this.regions[(int) (offset / REGION_BYTES)].getInt((int) (offset % REGION_BYTES));
+  }
+
+  // returns the long at the given offset into the file
+  long longAt(long offset) {
+    return this.regions[(int) (offset / REGION_BYTES)].getLong((int) (offset % REGION_BYTES));
+  }
+
+  // does this file have the maze's solution saved?
+  boolean hasSolution() {
+    return (this.flags & HAS_SOLUTION) != 0;
+  }
+
+  // is the passage along the given edge open?
+  boolean isOpen(long edge) {
+    return (this.longAt(HEADER_BYTES + (edge >>> 6) * 8) & (1L << edge)) != 0;
+  }
+
+  // returns the saved solution, from the bottom right back to the top left
+  int[] solution() {
+    long offset = HEADER_BYTES + this.bitmapWords * 8;
+    int[] cells = new int[this.intAt(offset)];
+    for (int i = 0; i < cells.length; i += 1) {
+      cells[i] = this.intAt(offset + 4 + 4L * i);
+    }
+    return cells;
+  }
+
+  // returns a grid with the passages of the saved maze, read all at once
+  MazeGrid toGrid() {
+    return this.toGrid(new HeapStorage());
+  }
+
+  // returns a grid with the passages of the saved maze, read all at once into
+  // the given storage
+  MazeGrid toGrid(ICellStorage storage) {
+    if ((long) this.width * this.height > Integer.MAX_VALUE / 2) {
+      throw new IllegalStateException("Too many cells to load whole: " + this.width + "x"
+          + this.height);
+    }
+    MazeGrid grid = new MazeGrid(this.width, this.height, storage);
+    for (long k = 0; k < this.bitmapWords; k += 1) {
+      long word = this.longAt(HEADER_BYTES + k * 8);
+      while (word != 0) {
+        grid.open((int) (k * 64) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return grid;
+  }
+}
+
+// generates and solves a maze without opening a window, reporting statistics
+// and optionally writing the maze out as text. Usage:
+//   java mazes.HeadlessMaze <width> <height> [seed] [--print] [--out <file>]
+//       [--threads <n>] [--stream] [--solver bfs|dfs|astar|bidi] [--metrics]
+//       [--generator kruskal|backtracker|wilson] [--off-heap]
+//       [--png <file>] [--scale <pixels>]
+// With --stream the maze is generated row by row with Eller's algorithm and
+// written out as it goes instead of being kept whole and solved. An output
+// file ending in .maze is written in the binary maze file format, and text
+// otherwise. With --solver the maze is also solved with the named search,
+// reporting how many cells it expanded, and with --metrics the statistics are
+// followed by the time spent in each phase and the work counted. With
+// --off-heap the grid and the solver's cells are kept outside the Java heap.
+// With --png the maze and its solution are also drawn to a PNG image, at
+// --scale pixels a cell, 4 unless given
+class HeadlessMaze {
+  int width;
+  int height;
+  long seed;
+  int threads; // threads to generate and search the maze with
+  boolean stream;
+  boolean print; // write the maze to the console
+  String out; // file to write the maze to, or null
+  String solver; // search to solve the maze with, or null
+  String generator;
+  boolean metrics;
+  boolean offHeap; // keep the maze's cells outside the Java heap
+  String png; // image file to draw the maze to, or null
+  int scale; // pixels a cell in the image
+
+  // constructor from command line arguments
+  HeadlessMaze(String[] args) {
+    ArrayList<String> positional = new ArrayList<>();
+    this.seed = new Random().nextLong();
+    this.threads = 1;
+    this.generator = "kruskal";
+    this.scale = 4;
+    try {
+      for (int i = 0; i < args.length; i += 1) {
+        if (args[i].equals("--print")) {
+          this.print = true;
+        }
+        else if (args[i].equals("--stream")) {
+          this.stream = true;
+        }
+        else if (args[i].equals("--metrics")) {
+          this.metrics = true;
+        }
+        else if (args[i].equals("--off-heap")) {
+          this.offHeap = true;
+        }
+        else if (args[i].equals("--out")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--out needs a file name");
+          }
+          i += 1;
+          this.out = args[i];
+        }
+        else if (args[i].equals("--threads")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--threads needs a number");
+          }
+          i += 1;
+          this.threads = Integer.parseInt(args[i]);
+        }
+        else if (args[i].equals("--png")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--png needs a file name");
+          }
+          i += 1;
+          this.png = args[i];
+        }
+        else if (args[i].equals("--scale")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--scale needs a number");
+          }
+          i += 1;
+          this.scale = Integer.parseInt(args[i]);
+        }
+        else if (args[i].equals("--solver")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--solver needs a name");
+          }
+          i += 1;
+          this.solver = args[i];
+          if (!Arrays.asList(MazeCore.SOLVERS).contains(this.solver)) {
+            throw new IllegalArgumentException("Unknown solver: " + this.solver);
+          }
+        }
+        else if (args[i].equals("--generator")) {
+          if (i + 1 == args.length) {
+            throw new IllegalArgumentException("--generator needs a name");
+          }
+          i += 1;
+          this.generator = args[i];
+          if (!Arrays.asList(MazeCore.GENERATORS).contains(this.generator)) {
+            throw new IllegalArgumentException("Unknown generator: " + this.generator);
+          }
+        }
+        else {
+          positional.add(args[i]);
+        }
+      }
+      if (positional.size() < 2 || positional.size() > 3) {
+        throw new IllegalArgumentException("Usage: HeadlessMaze <width> <height> [seed] "
+            + "[--print] [--out <file>] [--threads <n>] [--stream] [--solver <name>] "
+            + "[--metrics] [--generator <name>] [--off-heap] [--png <file>] "
+            + "[--scale <pixels>]");
+      }
+      this.width = Integer.parseInt(positional.get(0));
+      this.height = Integer.parseInt(positional.get(1));
+      if (positional.size() == 3) {
+        this.seed = Long.parseLong(positional.get(2));
+      }
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + e.getMessage());
+    }
+  }
+
+  // generates and solves the maze, returning a line of statistics about it
+  // EFFECT: writes the maze to the console and the output file if asked to
+  String run(PrintStream console) throws IOException {
+    if (this.stream) {
+      return this.runStream(console);
+    }
+    long start = System.nanoTime();
+    MazeCore core = new MazeCore(this.width, this.height, new Random(this.seed),
+        MazeCore.generator(this.generator, this.threads),
+        this.offHeap ? new OffHeapStorage() : new HeapStorage(), this.threads);
+    long elapsed = System.nanoTime() - start;
+    if (this.print) {
+      core.writeText(console);
+    }
+    if (this.out != null && this.out.endsWith(".maze")) {
+      MazeFile.write(core, this.seed, true, Paths.get(this.out));
+    }
+    else if (this.out != null) {
+      try (Writer file = new BufferedWriter(new FileWriter(this.out))) {
+        core.writeText(file);
+      }
+    }
+    String stats = "size=" + this.width + "x" + this.height + " seed=" + this.seed
+        + " solution=" + core.solutionLength + " deadEnds=" + core.deadEnds() + " millis="
+        + elapsed / 1000000;
+    if (this.solver != null) {
+      SearchState state = new SearchState(core.grid.size(), new Queue(), core.storage);
+      start = System.nanoTime();
+      int expanded = core.search(this.solver, state);
+      stats += " solver=" + this.solver + " expanded=" + expanded + " solveMillis="
+          + (System.nanoTime() - start) / 1000000;
+    }
+    if (this.png != null) {
+      start = System.nanoTime();
+      MazeRaster.render(core, this.scale).writePng(Paths.get(this.png));
+      stats += " pngMillis=" + (System.nanoTime() - start) / 1000000;
+    }
+    if (this.metrics) {
+      stats += "\n" + core.metrics.describeTimes() + "\n" + core.metrics.describeCounts();
+    }
+    return stats;
+  }
+
+  // streams the maze out row by row, returning a line of statistics about it
+  // EFFECT: writes the maze to the output file, or else the console if asked to
+  String runStream(PrintStream console) throws IOException {
+    long start = System.nanoTime();
+    EllerGenerator generator = new EllerGenerator(this.width, this.height,
+        new Random(this.seed));
+    if (this.out != null && this.out.endsWith(".maze")) {
+      try (MazeFileWriter file = new MazeFileWriter(new FileOutputStream(this.out), this.width,
+          this.height, this.seed, 0)) {
+        generator.generate(file);
+      }
+    }
+    else if (this.out != null) {
+      try (Writer file = new BufferedWriter(new FileWriter(this.out))) {
+        generator.generate(new TextRowSink(file, this.width));
+      }
+    }
+    else if (this.print) {
+      generator.generate(new TextRowSink(console, this.width));
+    }
+    else {
+      generator.generate((y, right, down) -> { });
+    }
+    return "size=" + this.width + "x" + this.height + " seed=" + this.seed + " streamed millis="
+        + (System.nanoTime() - start) / 1000000;
+  }
+
+  public static void main(String[] args) {
+    try {
+      System.out.println(new HeadlessMaze(args).run(System.out));
+    }
+    catch (IllegalArgumentException | IOException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+    }
+  }
+}
+
+// generates and solves a batch of mazes of one size across a pool of threads,
+// writing a line of results per maze as each one finishes and then a report of
+// the throughput and the latencies of the batch. Each maze gets its own seed
+// derived from the base seed and its index, so a batch is reproducible however
+// many threads run it. Usage:
+//   java mazes.MazeBatch <count> <width> <height> [--seed 1] [--threads <n>]
+//       [--virtual] [--out <file>]
+// With --virtual every maze runs on its own virtual thread, on Java 21 or
+// later. Results go to the output file if given, and the console otherwise
+class MazeBatch {
+  int count;
+  int width;
+  int height;
+  long seed;
+  int threads;
+  boolean virtual;
+  String out; // file to write the results to, or null
+
+  // constructor from command line arguments
+  MazeBatch(String[] args) {
+    ArrayList<String> positional = new ArrayList<>();
+    this.seed = 1;
+    this.threads = Runtime.getRuntime().availableProcessors();
+    try {
+      for (int i = 0; i < args.length; i += 1) {
+        if (args[i].equals("--virtual")) {
+          this.virtual = true;
+        }
+        else if (args[i].startsWith("--") && i + 1 == args.length) {
+          throw new IllegalArgumentException(args[i] + " needs a value");
+        }
+        else if (args[i].equals("--seed")) {
+          i += 1;
+          this.seed = Long.parseLong(args[i]);
+        }
+        else if (args[i].equals("--threads")) {
+          i += 1;
+          this.threads = Integer.parseInt(args[i]);
+        }
+        else if (args[i].equals("--out")) {
+          i += 1;
+          this.out = args[i];
+        }
+        else {
+          positional.add(args[i]);
+        }
+      }
+      if (positional.size() != 3) {
+        throw new IllegalArgumentException("Usage: MazeBatch <count> <width> <height> "
+            + "[--seed <seed>] [--threads <n>] [--virtual] [--out <file>]");
+      }
+      this.count = Integer.parseInt(positional.get(0));
+      this.width = Integer.parseInt(positional.get(1));
+      this.height = Integer.parseInt(positional.get(2));
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + e.getMessage());
+    }
+    if (this.count < 1 || this.threads < 1) {
+      throw new IllegalArgumentException("A batch needs at least one maze and one thread");
+    }
+  }
+
+  // returns the seed of the maze with the given index in a batch with the given
+  // base seed, scrambled so that neighboring indices get unrelated seeds
+  static long taskSeed(long base, int index) {
+    long z = base + (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // returns the results of generating and solving the maze with the given index
+  BatchResult solveOne(int index) {
+    long taskSeed = taskSeed(this.seed, index);
+    long start = System.nanoTime();
+    MazeCore core = new MazeCore(this.width, this.height, new Random(taskSeed));
+    int solution = core.solutionLength;
+    int deadEnds = core.deadEnds();
+    return new BatchResult(index, taskSeed, solution, deadEnds, System.nanoTime() - start);
+  }
+
+  // returns the executor to run the batch on
+  ExecutorService makeExecutor() {
+    if (!this.virtual) {
+      return Executors.newFixedThreadPool(this.threads);
+    }
+    try {
+      // looked up at run time, since virtual threads are newer than Java 11
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    }
+    catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Virtual threads need Java 21 or later");
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot start virtual threads", e);
+    }
+  }
+
+  // runs the batch, returning the report on it
+  // EFFECT: writes a line of results per maze to the output file, or else the
+  // given console, in the order the mazes finish
+  String run(PrintStream console) throws IOException, InterruptedException {
+    ExecutorService executor = this.makeExecutor();
+    long[] latencies = new long[this.count];
+    long start = System.nanoTime();
+    Writer file = this.out == null ? null : new BufferedWriter(new FileWriter(this.out));
+    Appendable results = file == null ? console : file;
+    try {
+      CompletionService<BatchResult> done = new ExecutorCompletionService<>(executor);
+      for (int i = 0; i < this.count; i += 1) {
+        int index = i;
+        done.submit(() -> this.solveOne(index));
+      }
+      for (int i = 0; i < this.count; i += 1) {
+        BatchResult result = done.take().get();
+        latencies[i] = result.nanos;
+        results.append(result.toLine()).append('\n');
+      }
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("A maze of the batch failed", e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+      if (file != null) {
+        file.close();
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    Arrays.sort(latencies);
+    return String.format("mazes=%d size=%dx%d threads=%s seconds=%.3f mazes/s=%.1f "
+        + "p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms", this.count, this.width, this.height,
+        this.virtual ? "virtual" : Integer.toString(this.threads), seconds,
+        this.count / seconds, percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+        percentile(latencies, 99) / 1e6, latencies[this.count - 1] / 1e6);
+  }
+
+  // returns the smallest value that is at least the given percentage of the
+  // given sorted values
+  static long percentile(long[] sorted, double percent) {
+    int rank = (int) Math.ceil(percent / 100 * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  public static void main(String[] args) {
+    try {
+      System.out.println(new MazeBatch(args).run(System.out));
+    }
+    catch (IllegalArgumentException | IllegalStateException | IOException
+        | InterruptedException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+    }
+  }
+}
+
+// the results of generating and solving one maze of a batch
+class BatchResult {
+  int index;
+  long seed;
+  int solution; // cells on the solution
+  int deadEnds;
+  long nanos; // time taken to generate and solve the maze
+
+  // constructor
+  BatchResult(int index, long seed, int solution, int deadEnds, long nanos) {
+    this.index = index;
+    this.seed = seed;
+    this.solution = solution;
+    this.deadEnds = deadEnds;
+    this.nanos = nanos;
+  }
+
+  // returns these results as a line of a batch's output
+  String toLine() {
+    return "maze=" + this.index + " seed=" + this.seed + " solution=" + this.solution
+        + " deadEnds=" + this.deadEnds + " millis=" + String.format("%.3f", this.nanos / 1e6);
+  }
+}
+
+// represents a maze
+class Maze extends World {
+  int width;
+  int height;
+  MazeCore core; // the passages and the solution, without any drawing
+  Player player;
+  SearchState searchState; // the animated search started by "b", "d", "a" or "m"
+  BidirectionalSearch meeting; // the animated search started by "m", or null
+  boolean togglePath;
+  int wrongMoves;
+  int algoWrongMoves;
+  ComputedPixelImage wallLayer; // rasterized once per maze
+  ComputedPixelImage searchLayer; // cells expanded by searchState so far
+  int searchDrawn;
+  ComputedPixelImage trailLayer; // cells on the player's path so far
+  int trailDrawn;
+  SearchScheduler scheduler; // how many search steps each tick runs
+  boolean showMetrics; // draw the times and counters of core.metrics
+  Viewport view; // the part of the maze on screen
+  boolean showSolution; // color the solution, once solved
+  MazeRaster raster; // the viewport drawn as pixels
+  ComputedPixelImage screen; // the pixels of the raster as of the last frame
+
+  // random world constructor
+  Maze(int width, int height) {
+    this(width, height, new Random());
+  }
+
+  // testing constructor
+  Maze(int width, int height, Random rand) {
+    this(width, height, rand, 1);
+  }
+
+  // constructor generating the maze with the given number of threads
+  Maze(int width, int height, Random rand, int parallelism) {
+    this(new MazeCore(width, height, rand, parallelism));
+  }
+
+  // constructor for playing an existing maze, such as one loaded from a file
+  Maze(MazeCore core) {
+    this.width = core.width;
+    this.height = core.height;
+    this.core = core;
+    this.player = new Player(0, core.width * core.height, core.storage);
+    this.searchState = new SearchState(core.width * core.height, new Queue(), core.storage);
+    this.togglePath = true;
+    this.wrongMoves = 0;
+    this.algoWrongMoves = 0;
+    this.scheduler = new SearchScheduler(5000000000L, 8000000L, Integer.MAX_VALUE);
+    this.view = new Viewport(core.width, core.height);
+  }
+
+  // draws this maze world with an empty scene
+  public WorldScene makeScene() {
+    return this.makeScene(this.getEmptyScene());
+  }
+
+  // test method for makeScene, draws this maze world with the given scene
+  public WorldScene makeScene(WorldScene scene) {
+    long started = System.nanoTime();
+    this.core.metrics.images = 0;
+    if (this.view.showsWhole() && !this.showSolution) {
+      this.updateLayers();
+      // draws the search path
+      scene.placeImageXY(this.searchLayer, this.width * 10 / 2, this.height * 10 / 2);
+      // draws the player's path
+      if (this.togglePath) {
+        scene.placeImageXY(this.trailLayer, this.width * 10 / 2, this.height * 10 / 2);
+      }
+      // goal
+      scene.placeImageXY(this.counted(new RectangleImage(10, 10, "solid", Color.pink)),
+          this.width * 10 - 5, this.height * 10 - 5);
+      // player
+      scene.placeImageXY(this.counted(new RectangleImage(10, 10, "solid", Color.green)),
+          this.core.grid.x(this.player.curr) * 10 + 5,
+          this.core.grid.y(this.player.curr) * 10 + 5);
+      // draws the walls and the outline of this maze
+      scene.placeImageXY(this.wallLayer, this.width * 10 / 2, this.height * 10 / 2);
+    }
+    else {
+      // draws only the cells in the viewport, however big the maze is
+      scene.placeImageXY(this.drawView(), this.view.width / 2, this.view.height / 2);
+    }
+    scene.placeImageXY(
+        this.counted(new TextImage("Wrong Moves: " + this.wrongMoves, 10, Color.black)), 100,
+        this.view.height + 15);
+    scene.placeImageXY(this.counted(
+        new TextImage("Algorithm Wrong Moves: " + this.algoWrongMoves, 10, Color.black)), 100,
+        this.view.height + 30);
+    scene.placeImageXY(this.counted(new TextImage("Distance To Exit: "
+        + this.core.distanceToGoal(this.player.curr), 10, Color.black)), 100,
+        this.view.height + 45);
+    if (this.showMetrics) {
+      int x = Math.max(100, this.view.width / 2);
+      scene.placeImageXY(this.counted(
+          new TextImage(this.core.metrics.describeTimes(), 10, Color.gray)), x,
+          this.view.height + 60);
+      scene.placeImageXY(this.counted(
+          new TextImage(this.core.metrics.describeCounts(), 10, Color.gray)), x,
+          this.view.height + 75);
+    }
+    this.core.metrics.stop(MazeMetrics.SCENE, started);
+    return scene;
+  }
+
+  // returns the given image, counting it as allocated for the current frame
+  <T extends WorldImage> T counted(T image) {
+    this.core.metrics.images += 1;
+    return image;
+  }
+
+  // EFFECT: brings the cached layers of this maze up to date, rasterizing the
+  // walls if they have not been yet and painting only the cells that the search
+  // and the player reached since the last frame
+  void updateLayers() {
+    if (this.wallLayer == null) {
+      this.wallLayer = this.counted(this.drawWalls());
+    }
+    if (this.searchLayer == null) {
+      this.searchLayer = this.counted(new ComputedPixelImage(this.width * 10, this.height * 10));
+      this.searchDrawn = 0;
+    }
+    if (this.trailLayer == null) {
+      this.trailLayer = this.counted(new ComputedPixelImage(this.width * 10, this.height * 10));
+      this.trailDrawn = 0;
+    }
+    for (; this.searchDrawn < this.searchState.expanded; this.searchDrawn += 1) {
+      this.fillCell(this.searchLayer, this.searchState.order.get(this.searchDrawn), Color.cyan);
+    }
+    for (; this.trailDrawn < this.player.moves; this.trailDrawn += 1) {
+      this.fillCell(this.trailLayer, this.player.path[this.trailDrawn],
+          new Color(32, 205, 32));
+    }
+  }
+
+  // returns the walls and the outline of this maze rasterized into one image
+  ComputedPixelImage drawWalls() {
+    ComputedPixelImage walls = new ComputedPixelImage(this.width * 10, this.height * 10);
+    for (int y = 0; y < this.height; y += 1) {
+      for (int x = 0; x < this.width; x += 1) {
+        int cell = this.core.grid.cell(x, y);
+        if (x < this.width - 1 && !this.core.grid.hasRight(cell)) {
+          for (int i = 0; i <= 10; i += 1) {
+            walls.setPixel(x * 10 + 10, Math.min(y * 10 + i, this.height * 10 - 1), Color.black);
+          }
+        }
+        if (y < this.height - 1 && !this.core.grid.hasDown(cell)) {
+          for (int i = 0; i <= 10; i += 1) {
+            walls.setPixel(Math.min(x * 10 + i, this.width * 10 - 1), y * 10 + 10, Color.black);
+          }
+        }
+      }
+    }
+    for (int x = 0; x < this.width * 10; x += 1) {
+      walls.setPixel(x, 0, Color.black);
+      walls.setPixel(x, this.height * 10 - 1, Color.black);
+    }
+    for (int y = 0; y < this.height * 10; y += 1) {
+      walls.setPixel(0, y, Color.black);
+      walls.setPixel(this.width * 10 - 1, y, Color.black);
+    }
+    return walls;
+  }
+
+  // returns the cells of this maze in the viewport drawn into an image the size
+  // of the screen, going over only the cells that show. The raster draws the
+  // frame and only the pixels that changed since the last one are copied into
+  // the image, which is kept from frame to frame
+  ComputedPixelImage drawView() {
+    if (this.raster == null || this.raster.width != this.view.width
+        || this.raster.height != this.view.height) {
+      this.raster = new MazeRaster(this.view.width, this.view.height);
+      this.screen = this.counted(new ComputedPixelImage(this.view.width, this.view.height));
+    }
+    this.raster.searched = this.searchState.seen;
+    this.raster.trail = this.togglePath ? this.player.visited : null;
+    this.raster.player = this.player.curr;
+    this.raster.solution = this.showSolution;
+    this.raster.draw(this.core, this.view, this.view.detailed());
+    this.raster.copyChanges(this.screen);
+    return this.screen;
+  }
+
+  // EFFECT: paints the square of the given cell in the given layer
+  void fillCell(ComputedPixelImage layer, int cell, Color color) {
+    int left = this.core.grid.x(cell) * 10;
+    int top = this.core.grid.y(cell) * 10;
+    for (int y = top; y < top + 10; y += 1) {
+      for (int x = left; x < left + 10; x += 1) {
+        layer.setPixel(x, y, color);
+      }
+    }
+  }
+
+  // draws this maze world with an empty scene, the solution drawn in by the
+  // raster
+  public WorldScene lastScene(String msg) {
+    this.showSolution = true;
+    WorldScene scene = this.makeScene();
+    scene.placeImageXY(new TextImage(msg, 10, Color.black), 100, this.view.height);
+    return scene;
+  }
+
+  // updates this world given a key, resetting the maze or moving the player
+  public void onKeyEvent(String key) {
+    if (key.equals("r")) {
+      // reuses the buffers of the current maze for the next one
+      this.core.regenerate();
+      this.player.reset(0);
+      this.searchState.clear();
+      this.meeting = null;
+      this.togglePath = true;
+      this.showSolution = false;
+      this.wrongMoves = 0;
+      this.algoWrongMoves = 0;
+      this.wallLayer = null;
+      this.searchLayer = null;
+      this.trailLayer = null;
+    }
+    else if (key.equals("b")) {
+      this.startSearch(new Queue());
+    }
+    else if (key.equals("d")) {
+      this.startSearch(new Stack());
+    }
+    else if (key.equals("a")) {
+      this.startSearch(new AStarQueue(this.width, this.height));
+    }
+    else if (key.equals("m")) {
+      this.meeting = new BidirectionalSearch(this.core, this.searchState);
+      this.searchLayer = null;
+      this.scheduler.start(System.nanoTime());
+      this.algoWrongMoves = 0;
+      this.meet();
+    }
+    else if (key.equals("p")) {
+      this.togglePath = !this.togglePath;
+    }
+    else if (key.equals("i")) {
+      this.showMetrics = !this.showMetrics;
+    }
+    else if (key.equals("=") || key.equals("+")) {
+      this.view.zoomIn();
+    }
+    else if (key.equals("-")) {
+      this.view.zoomOut();
+    }
+    else if (key.equals("h")) {
+      this.view.pan(-1, 0);
+    }
+    else if (key.equals("l")) {
+      this.view.pan(1, 0);
+    }
+    else if (key.equals("k")) {
+      this.view.pan(0, -1);
+    }
+    else if (key.equals("j")) {
+      this.view.pan(0, 1);
+    }
+    else if (this.validMove(key)) {
+      if (key.equals("right")) {
+        this.player.moveTo(this.player.curr + 1);
+      }
+      else if (key.equals("left")) {
+        this.player.moveTo(this.player.curr - 1);
+      }
+      else if (key.equals("up")) {
+        this.player.moveTo(this.player.curr - this.width);
+      }
+      else if (key.equals("down")) {
+        this.player.moveTo(this.player.curr + this.width);
+      }
+      this.view.follow(this.core.grid.x(this.player.curr), this.core.grid.y(this.player.curr));
+    }
+    if (!this.core.onSolution.contains(this.player.curr)
+        && !this.player.hasVisited(this.player.curr)) {
+      this.wrongMoves += 1;
+    }
+  }
+
+  // EFFECT: starts an animated search with the given worklist and runs its
+  // first step
+  void startSearch(ICollection worklist) {
+    this.meeting = null;
+    this.searchState.reset(worklist, 0);
+    this.searchLayer = null;
+    this.scheduler.start(System.nanoTime());
+    this.algoWrongMoves = 0;
+    this.search(this.core.grid.size() - 1, this.searchState);
+  }
+
+  // checks whether the given move is valid in this maze
+  boolean validMove(String key) {
+    if (key.equals("right")) {
+      return this.core.grid.hasRight(this.player.curr);
+    }
+    else if (key.equals("left")) {
+      return this.core.grid.hasLeft(this.player.curr);
+    }
+    else if (key.equals("up")) {
+      return this.core.grid.hasUp(this.player.curr);
+    }
+    else if (key.equals("down")) {
+      return this.core.grid.hasDown(this.player.curr);
+    }
+    return false;
+  }
+
+  // advances the animated search by as many steps as the scheduler allows this
+  // tick, and ends the world once the maze is solved
+  public void onTick() {
+    if (this.meeting != null && !this.meeting.done()) {
+      long start = System.nanoTime();
+      int steps = this.scheduler.plan(this.core.grid.size() - this.searchState.expanded, start);
+      int done = 0;
+      while (done < steps && !this.meeting.done()) {
+        this.meet();
+        done += 1;
+      }
+      this.scheduler.record(done, System.nanoTime() - start);
+    }
+    else if (this.meeting == null && !this.searchState.worklist.isEmpty()) {
+      long start = System.nanoTime();
+      int steps = this.scheduler.plan(this.core.grid.size() - this.searchState.expanded, start);
+      int done = 0;
+      boolean found = false;
+      while (done < steps && !found && !this.searchState.worklist.isEmpty()) {
+        found = this.search(this.core.grid.size() - 1, this.searchState);
+        done += 1;
+      }
+      this.scheduler.record(done, System.nanoTime() - start);
+    }
+    if (this.meeting == null && this.searchState.seen.contains(this.core.grid.size() - 1)
+        || this.meeting != null && this.meeting.met()
+        || this.player.curr == this.core.grid.size() - 1) {
+      this.endOfWorld("The Maze Is Solved!");
+    }
+  }
+
+  // returns whether the given goal cell came up in this step of the given search
+  // EFFECT: takes one cell off the search's worklist and expands it, ending the
+  // world once the goal comes up
+  boolean search(int to, SearchState state) {
+    int next = state.worklist.remove();
+    if (!this.core.onSolution.contains(next) && !state.seen.contains(next)) {
+      this.algoWrongMoves += 1;
+    }
+    if (next == to) {
+      this.endOfWorld("The Maze Is Solved!");
+      return true;
+    }
+    else if (state.seen.contains(next)) {
+      // do nothing: we've already seen this one
+    }
+    else {
+      this.core.expand(next, state);
+      this.core.metrics.expanded += 1;
+    }
+    return false;
+  }
+
+  // EFFECT: runs one step of the bidirectional search, counting the cell it
+  // expands as a wrong move if it is off the solution
+  void meet() {
+    int cell = this.meeting.step();
+    if (cell >= 0) {
+      this.core.metrics.expanded += 1;
+    }
+    if (cell >= 0 && !this.core.onSolution.contains(cell)) {
+      this.algoWrongMoves += 1;
+    }
+  }
+}
+
+// represents an endless maze split into square tiles of tileSize x tileSize
+// cells. Each tile is a perfect maze generated when first needed from a seed
+// derived from its coordinates, so the same tile always comes out the same.
+// Neighboring tiles are joined by one door on the seam between them, which both
+// tiles work out from the seam's coordinates alone, so the whole world is
+// connected without looking at the neighbor. Only the most recently used tiles
+// stay in memory, as many as fit in the memory budget, and any others are
+// generated again when needed. Cell (x, y) is at tile (floor(x / tileSize),
+// floor(y / tileSize)), which must stay within the range of an int
+class TiledMaze {
+  static final int MIN_TILES = 9; // the tile the player is on and its neighbors
+
+  long seed;
+  int tileSize;
+  int capacity; // the most tiles kept at once
+  LinkedHashMap<Long, MazeGrid> tiles; // in order of use, least recent first
+  MazeCore carver; // generates each tile into its grid
+  MazeGrid spare; // the grid of the tile evicted last, to generate the next one in
+  long generated; // tiles generated so far, including ones generated again
+
+  // constructor, keeping at most budget bytes of tiles generated by the given
+  // generator
+  TiledMaze(long seed, int tileSize, long budget, IMazeGenerator generator) {
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("A tile needs at least one cell, not " + tileSize);
+    }
+    if (budget / TiledMaze.tileBytes(tileSize) < MIN_TILES) {
+      throw new IllegalArgumentException("A budget of " + budget + " bytes holds fewer than "
+          + MIN_TILES + " tiles of " + tileSize + "x" + tileSize + " cells");
+    }
+    this.seed = seed;
+    this.tileSize = tileSize;
+    this.capacity = (int) Math.min(budget / TiledMaze.tileBytes(tileSize), 1 << 24);
+    this.tiles = new LinkedHashMap<Long, MazeGrid>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<Long, MazeGrid> eldest) {
+        if (this.size() > TiledMaze.this.capacity) {
+          TiledMaze.this.spare = eldest.getValue();
+          return true;
+        }
+        return false;
+      }
+    };
+    this.spare = new MazeGrid(tileSize, tileSize);
+    this.carver = new MazeCore(this.spare, new Random(seed), generator);
+  }
+
+  // returns roughly how many bytes a tile of the given size takes, its two
+  // sets of passages and the objects around them
+  static long tileBytes(int tileSize) {
+    return 2 * (((long) tileSize * tileSize + 63) >> 6) * 8 + 128;
+  }
+
+  // returns the given number with its bits mixed, the finalizer of splitmix64
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // returns the key of the tile at the given tile coordinates
+  static long key(int tileX, int tileY) {
+    return (long) tileX << 32 | tileY & 0xFFFFFFFFL;
+  }
+
+  // returns the seed the tile at the given tile coordinates is generated from
+  long tileSeed(int tileX, int tileY) {
+    return TiledMaze.mix(this.seed + TiledMaze.mix(TiledMaze.key(tileX, tileY)));
+  }
+
+  // returns the row of the door on the right side of the given tile, if right,
+  // or the column of the door on its bottom side otherwise
+  int door(int tileX, int tileY, boolean right) {
+    long z = TiledMaze.mix(this.tileSeed(tileX, tileY) + (right ? 1 : 2));
+    return (int) Math.floorMod(z, (long) this.tileSize);
+  }
+
+  // returns the passages of the tile at the given tile coordinates
+  // EFFECT: generates the tile if it is not in memory, evicting the least
+  // recently used tile if that goes over capacity
+  MazeGrid tile(int tileX, int tileY) {
+    long key = TiledMaze.key(tileX, tileY);
+    MazeGrid grid = this.tiles.get(key);
+    if (grid == null) {
+      if (this.spare == null) {
+        grid = new MazeGrid(this.tileSize, this.tileSize);
+      }
+      else {
+        grid = this.spare;
+        this.spare = null;
+        grid.clear();
+      }
+      this.carver.grid = grid;
+      this.carver.rand.setSeed(this.tileSeed(tileX, tileY));
+      this.carver.generate();
+      this.generated += 1;
+      this.tiles.put(key, grid);
+    }
+    return grid;
+  }
+
+  // is the passage from the given cell to the cell to its right open?
+  boolean hasRight(long x, long y) {
+    int tileX = (int) Math.floorDiv(x, (long) this.tileSize);
+    int tileY = (int) Math.floorDiv(y, (long) this.tileSize);
+    int localX = (int) Math.floorMod(x, (long) this.tileSize);
+    int localY = (int) Math.floorMod(y, (long) this.tileSize);
+    if (localX < this.tileSize - 1) {
+      MazeGrid grid = this.tile(tileX, tileY);
+      return grid.hasRight(grid.cell(localX, localY));
+    }
+    else {
+      return localY == this.door(tileX, tileY, true);
+    }
+  }
+
+  // is the passage from the given cell to the cell below it open?
+  boolean hasDown(long x, long y) {
+    int tileX = (int) Math.floorDiv(x, (long) this.tileSize);
+    int tileY = (int) Math.floorDiv(y, (long) this.tileSize);
+    int localX = (int) Math.floorMod(x, (long) this.tileSize);
+    int localY = (int) Math.floorMod(y, (long) this.tileSize);
+    if (localY < this.tileSize - 1) {
+      MazeGrid grid = this.tile(tileX, tileY);
+      return grid.hasDown(grid.cell(localX, localY));
+    }
+    else {
+      return localX == this.door(tileX, tileY, false);
+    }
+  }
+
+  // is the passage from the given cell to the cell to its left open?
+  boolean hasLeft(long x, long y) {
+    return this.hasRight(x - 1, y);
+  }
+
+  // is the passage from the given cell to the cell above it open?
+  boolean hasUp(long x, long y) {
+    return this.hasDown(x, y - 1);
+  }
+}
+
+// represents an endless maze to wander around, scrolling to keep the player in
+// the middle of a window of the maze. Only the player's position and the tiles
+// around it are kept, so memory stays the same however far the player goes.
+// Usage:
+//   java mazes.EndlessMaze [seed]
+class EndlessMaze extends World {
+  static final int VIEW = 60; // cells across and down the window
+  static final int TILE = 32;
+  static final long BUDGET = 1 << 22; // bytes of tiles kept
+
+  TiledMaze maze;
+  long x; // the player's cell
+  long y;
+  long moves;
+  MazeRaster raster; // the walls of the window, drawn again every frame
+  ComputedPixelImage view; // the window shown, updated where the raster changed
+
+  // constructor
+  EndlessMaze(long seed) {
+    this.maze = new TiledMaze(seed, TILE, BUDGET, new BacktrackerGenerator());
+    this.raster = new MazeRaster(VIEW * 10, VIEW * 10);
+    this.view = new ComputedPixelImage(VIEW * 10, VIEW * 10);
+  }
+
+  // draws the window of the maze around the player
+  public WorldScene makeScene() {
+    WorldScene scene = this.getEmptyScene();
+    int edge = VIEW * 10;
+    long left = this.x - VIEW / 2;
+    long top = this.y - VIEW / 2;
+    Arrays.fill(this.raster.pixels, 0);
+    for (int row = 0; row < VIEW; row += 1) {
+      for (int col = 0; col < VIEW; col += 1) {
+        if (!this.maze.hasRight(left + col, top + row)) {
+          int x = Math.min(col * 10 + 9, edge - 1);
+          this.raster.fill(x, row * 10, x + 1, Math.min(row * 10 + 11, edge), MazeRaster.WALL);
+        }
+        if (!this.maze.hasDown(left + col, top + row)) {
+          int y = Math.min(row * 10 + 9, edge - 1);
+          this.raster.fill(col * 10, y, Math.min(col * 10 + 11, edge), y + 1, MazeRaster.WALL);
+        }
+      }
+    }
+    this.raster.copyChanges(this.view);
+    scene.placeImageXY(this.view, VIEW * 5, VIEW * 5);
+    scene.placeImageXY(new RectangleImage(8, 8, "solid", Color.green), VIEW * 5 + 4,
+        VIEW * 5 + 4);
+    scene.placeImageXY(new TextImage("Position: " + this.x + ", " + this.y + "  Moves: "
+        + this.moves + "  Tiles: " + this.maze.tiles.size(), 10, Color.black), VIEW * 5,
+        VIEW * 10 + 15);
+    return scene;
+  }
+
+  // moves the player through an open passage in the direction of the given key
+  public void onKeyEvent(String key) {
+    if (key.equals("right") && this.maze.hasRight(this.x, this.y)) {
+      this.x += 1;
+    }
+    else if (key.equals("left") && this.maze.hasLeft(this.x, this.y)) {
+      this.x -= 1;
+    }
+    else if (key.equals("up") && this.maze.hasUp(this.x, this.y)) {
+      this.y -= 1;
+    }
+    else if (key.equals("down") && this.maze.hasDown(this.x, this.y)) {
+      this.y += 1;
+    }
+    else {
+      return;
+    }
+    this.moves += 1;
+  }
+
+  public static void main(String[] args) {
+    long seed = args.length > 0 ? Long.parseLong(args[0]) : new Random().nextLong();
+    new EndlessMaze(seed).bigBang(VIEW * 10, VIEW * 10 + 30);
+  }
+}
+
+// represents the part of a maze shown on screen: a window of width x height
+// pixels with cell (left, top) in its top left corner. Zoomed in, every cell
+// takes cellPixels x cellPixels pixels. Zoomed out past a pixel per cell,
+// every pixel stands for a block of pixelCells x pixelCells cells instead
+class Viewport {
+  static final int[] ZOOMS = { 1, 2, 5, 10, 20, 40 }; // pixels per cell
+  static final int DETAIL = 5; // the fewest pixels per cell walls are drawn at
+  static final int MAX_WIDTH = 1200;
+  static final int MAX_HEIGHT = 800;
+  // the shades of cells with 0 to 4 passages when walls are not drawn
+  static final Color[] SHADES = { Color.black, Color.darkGray, Color.gray, Color.lightGray,
+      Color.white };
+
+  int width;
+  int height;
+  int columns; // the size of the maze in cells
+  int rows;
+  int left;
+  int top;
+  int cellPixels;
+  int pixelCells;
+
+  // constructor, showing the whole maze of the given size at 10 pixels a cell if
+  // it fits on the largest screen, and zoomed out until it does otherwise
+  Viewport(int columns, int rows) {
+    this.columns = columns;
+    this.rows = rows;
+    this.width = (int) Math.min(columns * 10L, MAX_WIDTH);
+    this.height = (int) Math.min(rows * 10L, MAX_HEIGHT);
+    this.cellPixels = 10;
+    this.pixelCells = 1;
+    while (!this.fitsWhole()) {
+      this.zoomOut();
+    }
+  }
+
+  // returns how many columns of cells show across the screen
+  int visibleColumns() {
+    return (this.width + this.cellPixels - 1) / this.cellPixels * this.pixelCells;
+  }
+
+  // returns how many rows of cells show down the screen
+  int visibleRows() {
+    return (this.height + this.cellPixels - 1) / this.cellPixels * this.pixelCells;
+  }
+
+  // returns the column in the middle of the part of the maze on screen
+  int middleColumn() {
+    return this.left + Math.min(this.visibleColumns(), this.columns - this.left) / 2;
+  }
+
+  // returns the row in the middle of the part of the maze on screen
+  int middleRow() {
+    return this.top + Math.min(this.visibleRows(), this.rows - this.top) / 2;
+  }
+
+  // does the whole maze show on screen?
+  boolean fitsWhole() {
+    return this.left == 0 && this.top == 0 && this.visibleColumns() >= this.columns
+        && this.visibleRows() >= this.rows;
+  }
+
+  // does the whole maze show at the 10 pixels a cell the cached layers are drawn at?
+  boolean showsWhole() {
+    return this.cellPixels == 10 && this.pixelCells == 1 && this.fitsWhole();
+  }
+
+  // are cells big enough on screen to draw their walls?
+  boolean detailed() {
+    return this.cellPixels >= DETAIL;
+  }
+
+  // EFFECT: zooms in one step, keeping the middle of the screen where it is
+  void zoomIn() {
+    int middleX = this.middleColumn();
+    int middleY = this.middleRow();
+    if (this.pixelCells > 1) {
+      this.pixelCells /= 2;
+    }
+    else {
+      int next = Arrays.binarySearch(ZOOMS, this.cellPixels) + 1;
+      this.cellPixels = ZOOMS[Math.min(next, ZOOMS.length - 1)];
+    }
+    this.center(middleX, middleY);
+  }
+
+  // EFFECT: zooms out one step, keeping the middle of the screen where it is,
+  // unless the whole maze already shows
+  void zoomOut() {
+    if (this.fitsWhole()) {
+      return;
+    }
+    int middleX = this.middleColumn();
+    int middleY = this.middleRow();
+    if (this.cellPixels > 1) {
+      this.cellPixels = ZOOMS[Arrays.binarySearch(ZOOMS, this.cellPixels) - 1];
+    }
+    else {
+      this.pixelCells *= 2;
+    }
+    this.center(middleX, middleY);
+  }
+
+  // EFFECT: moves the screen a quarter of its size in the given directions
+  void pan(int dx, int dy) {
+    this.left += dx * Math.max(1, this.visibleColumns() / 4);
+    this.top += dy * Math.max(1, this.visibleRows() / 4);
+    this.clamp();
+  }
+
+  // EFFECT: moves the screen to put the given cell in its middle, as near as
+  // the edges of the maze allow
+  void center(int x, int y) {
+    this.left = x - this.visibleColumns() / 2;
+    this.top = y - this.visibleRows() / 2;
+    this.clamp();
+  }
+
+  // EFFECT: moves the screen to put the given cell in its middle if it is off
+  // screen
+  void follow(int x, int y) {
+    if (x < this.left || x >= this.left + this.visibleColumns() || y < this.top
+        || y >= this.top + this.visibleRows()) {
+      this.center(x, y);
+    }
+  }
+
+  // EFFECT: keeps the screen from showing more past the right and bottom edges
+  // of the maze than it has to, and anything past its left and top edges
+  void clamp() {
+    this.left = Math.max(0, Math.min(this.left, this.columns - this.visibleColumns()));
+    this.top = Math.max(0, Math.min(this.top, this.rows - this.visibleRows()));
+  }
+}
+
+// represents a maze drawn as ARGB pixels straight into the int array behind a
+// BufferedImage, one flat write per run of pixels instead of an image object
+// per wall or cell. It draws the part of a maze a Viewport shows, the same way
+// for a frame of the game and for an image of a whole maze saved as a PNG.
+// Cells are colored by what is in them, and then their walls drawn on the
+// right and below, or shaded by their passages when walls are left out
+class MazeRaster {
+  static final int WALL = 0xFF000000;
+  static final int BACKGROUND = 0xFFFFFFFF;
+  static final int PLAYER = 0xFF00FF00;
+  static final int GOAL = 0xFFFFAFAF;
+  static final int SOLUTION = 0xFF57CEFA;
+  static final int TRAIL = 0xFF20CD20;
+  static final int SEARCH = 0xFF00FFFF;
+
+  int width;
+  int height;
+  BufferedImage image;
+  int[] pixels; // the pixels of the image, row by row
+  int[] shown; // the pixels as of the last copyChanges
+  ICellSet searched; // cells to mark as searched, or null
+  ICellSet trail; // cells to mark as the player's trail, or null
+  int player; // the cell to mark as the player's, or -1
+  boolean solution; // mark the maze's solution?
+
+  // constructor for an image of the given number of pixels
+  MazeRaster(int width, int height) {
+    if ((long) width * height > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many pixels to draw: " + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+    this.player = -1;
+  }
+
+  // EFFECT: draws the part of the given maze the given viewport shows, with the
+  // walls between cells if asked, leaving transparent whatever is past the maze
+  void draw(MazeCore core, Viewport view, boolean walls) {
+    MazeGrid grid = core.grid;
+    Arrays.fill(this.pixels, 0);
+    int size = view.cellPixels; // pixels across a block
+    int step = view.pixelCells; // cells across a block
+    for (int top = 0; top < this.height; top += size) {
+      int y = view.top + top / size * step;
+      int bottom = Math.min(top + size, this.height);
+      for (int left = 0; left < this.width && y < grid.height; left += size) {
+        int x = view.left + left / size * step;
+        if (x >= grid.width) {
+          break;
+        }
+        int cell = grid.cell(x, y);
+        int right = Math.min(left + size, this.width);
+        this.fill(left, top, right, bottom, this.blockColor(core, cell, step, walls));
+        if (walls) {
+          if (!grid.hasRight(cell)) {
+            this.fill(right - 1, top, right, bottom, WALL);
+          }
+          if (!grid.hasDown(cell)) {
+            this.fill(left, bottom - 1, right, bottom, WALL);
+          }
+          if (x == 0) {
+            this.fill(left, top, left + 1, bottom, WALL);
+          }
+          if (y == 0) {
+            this.fill(left, top, right, top + 1, WALL);
+          }
+          // the corner every four cells share
+          this.fill(right - 1, bottom - 1, right, bottom, WALL);
+        }
+      }
+    }
+  }
+
+  // returns the color of the step x step block of cells of the given maze with
+  // the given top left cell, from what is in that cell, or the shade of its
+  // passages if it is empty and walls are left out
+  int blockColor(MazeCore core, int cell, int step, boolean walls) {
+    MazeGrid grid = core.grid;
+    int x = grid.x(cell);
+    int y = grid.y(cell);
+    if (this.player >= 0 && grid.x(this.player) >= x && grid.x(this.player) < x + step
+        && grid.y(this.player) >= y && grid.y(this.player) < y + step) {
+      return PLAYER;
+    }
+    else if (x + step >= grid.width && y + step >= grid.height) {
+      return GOAL;
+    }
+    else if (this.solution && core.onSolution.contains(cell)) {
+      return SOLUTION;
+    }
+    else if (this.trail != null && this.trail.contains(cell)) {
+      return TRAIL;
+    }
+    else if (this.searched != null && this.searched.contains(cell)) {
+      return SEARCH;
+    }
+    else if (walls) {
+      return BACKGROUND;
+    }
+    else {
+      return Viewport.SHADES[grid.degree(cell)].getRGB();
+    }
+  }
+
+  // EFFECT: sets the pixels from (left, top) up to (right, bottom) to the given
+  // color, a row at a time
+  void fill(int left, int top, int right, int bottom, int argb) {
+    for (int y = top; y < bottom; y += 1) {
+      Arrays.fill(this.pixels, y * this.width + left, y * this.width + right, argb);
+    }
+  }
+
+  // returns the color of the pixel at the given coordinates
+  int pixel(int x, int y) {
+    return this.pixels[y * this.width + x];
+  }
+
+  // EFFECT: copies the pixels that changed since the last copy into the given
+  // image of the same size, which starts out transparent
+  void copyChanges(ComputedPixelImage target) {
+    if (this.shown == null) {
+      this.shown = new int[this.pixels.length];
+    }
+    Color color = new Color(0, true);
+    for (int i = 0; i < this.pixels.length; i += 1) {
+      if (this.pixels[i] != this.shown[i]) {
+        if (this.pixels[i] != color.getRGB()) {
+          color = new Color(this.pixels[i], true);
+        }
+        target.setPixel(i % this.width, i / this.width, color);
+        this.shown[i] = this.pixels[i];
+      }
+    }
+  }
+
+  // EFFECT: writes the image to the given file as a PNG
+  void writePng(Path file) throws IOException {
+    if (!ImageIO.write(this.image, "png", file.toFile())) {
+      throw new IOException("No PNG writer available");
+    }
+  }
+
+  // returns a raster of the whole given maze at the given number of pixels a
+  // cell, with its walls from 2 pixels a cell up, and its solution marked
+  static MazeRaster render(MazeCore core, int cellPixels) {
+    if (cellPixels < 1) {
+      throw new IllegalArgumentException("A cell needs at least one pixel, not " + cellPixels);
+    }
+    Viewport view = new Viewport(core.width, core.height);
+    view.width = (int) Math.min((long) core.width * cellPixels, Integer.MAX_VALUE);
+    view.height = (int) Math.min((long) core.height * cellPixels, Integer.MAX_VALUE);
+    view.cellPixels = cellPixels;
+    view.pixelCells = 1;
+    view.left = 0;
+    view.top = 0;
+    MazeRaster raster = new MazeRaster(view.width, view.height);
+    raster.solution = true;
+    raster.draw(core, view, cellPixels >= 2);
+    return raster;
+  }
+}
+
+// Represents a mutable collection of cell indices
+interface ICollection {
+  // Is this collection empty?
+  boolean isEmpty();
+
+  // EFFECT: adds the item to the collection
+  void add(int item);
+
+  // Returns the first item of the collection
+  // EFFECT: removes that first item
+  int remove();
+
+  // EFFECT: removes every item, keeping the space allocated for them
+  void clear();
+}
+
+// a last-in first-out collection of cell indices backed by a growable array
+class Stack implements ICollection {
+  int[] contents;
+  int size;
+
+  Stack() {
+    this.contents = new int[16];
+    this.size = 0;
+  }
+
+  Stack(int item) {
+    this();
+    this.add(item);
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public void add(int item) {
+    if (this.size == this.contents.length) {
+      this.contents = Arrays.copyOf(this.contents, this.size * 2);
+    }
+    this.contents[this.size] = item;
+    this.size += 1;
+  }
+
+  public int remove() {
+    if (this.size == 0) {
+      throw new IllegalStateException("Cannot remove from an empty stack");
+    }
+    this.size -= 1;
+    return this.contents[this.size];
+  }
+
+  public void clear() {
+    this.size = 0;
+  }
+}
+
+// a first-in first-out collection of cell indices backed by a growable ring
+// buffer
+class Queue implements ICollection {
+  int[] contents;
+  int head;
+  int size;
+
+  Queue() {
+    this.contents = new int[16];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  Queue(int item) {
+    this();
+    this.add(item);
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public void add(int item) {
+    if (this.size == this.contents.length) {
+      int[] grown = new int[this.size * 2];
+      for (int i = 0; i < this.size; i += 1) {
+        grown[i] = this.contents[(this.head + i) % this.contents.length];
+      }
+      this.contents = grown;
+      this.head = 0;
+    }
+    // NOTE: Different from Stack!
+    this.contents[(this.head + this.size) % this.contents.length] = item;
+    this.size += 1;
+  }
+
+  public int remove() {
+    if (this.size == 0) {
+      throw new IllegalStateException("Cannot remove from an empty queue");
+    }
+    int item = this.contents[this.head];
+    this.head = (this.head + 1) % this.contents.length;
+    this.size -= 1;
+    return item;
+  }
+
+  public void clear() {
+    this.head = 0;
+    this.size = 0;
+  }
+}
+
+// a collection of cell indices that removes first the cell that A* would: the
+// one with the fewest steps from the start plus steps left to the bottom right
+// if no walls were in the way, and of those the one closest to the bottom
+// right. Each cell added is taken to be one step past the cell removed last,
+// which is how searches queue the neighbors of the cell they expand. Backed by
+// a binary heap in primitive arrays
+class AStarQueue implements ICollection {
+  int width;
+  int height;
+  int[] depth; // the steps from the start to every cell added
+  int last; // the cell removed last, or -1 if none has been yet
+  long[] keys; // estimated length of the path through each cell, then steps left
+  int[] cells;
+  int size;
+
+  // constructor for searches of a width x height maze
+  AStarQueue(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.depth = new int[width * height];
+    this.last = -1;
+    this.keys = new long[16];
+    this.cells = new int[16];
+    this.size = 0;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public void add(int item) {
+    if (this.size == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, this.size * 2);
+      this.cells = Arrays.copyOf(this.cells, this.size * 2);
+    }
+    int steps = this.last < 0 ? 0 : this.depth[this.last] + 1;
+    this.depth[item] = steps;
+    int left = this.width - 1 - item % this.width + this.height - 1 - item / this.width;
+    long key = (long) (steps + left) << 32 | left;
+    // moves the hole up past every parent with a larger key
+    int hole = this.size;
+    while (hole > 0 && this.keys[(hole - 1) / 2] > key) {
+      int parent = (hole - 1) / 2;
+      this.keys[hole] = this.keys[parent];
+      this.cells[hole] = this.cells[parent];
+      hole = parent;
+    }
+    this.keys[hole] = key;
+    this.cells[hole] = item;
+    this.size += 1;
+  }
+
+  public int remove() {
+    if (this.size == 0) {
+      throw new IllegalStateException("Cannot remove from an empty heap");
+    }
+    int item = this.cells[0];
+    this.size -= 1;
+    long key = this.keys[this.size];
+    int cell = this.cells[this.size];
+    // moves the hole down past every smaller child, then fills it with the
+    // heap's last entry
+    int hole = 0;
+    while (hole * 2 + 1 < this.size) {
+      int child = hole * 2 + 1;
+      if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+        child += 1;
+      }
+      if (this.keys[child] >= key) {
+        break;
+      }
+      this.keys[hole] = this.keys[child];
+      this.cells[hole] = this.cells[child];
+      hole = child;
+    }
+    this.keys[hole] = key;
+    this.cells[hole] = cell;
+    this.last = item;
+    return item;
+  }
+
+  public void clear() {
+    this.size = 0;
+    this.last = -1;
+  }
+}
+
+// a breadth-first search from both the top left and the bottom right of a
+// maze at once, each expanding one cell per step from whichever side has fewer
+// cells waiting, until one side reaches a cell the other has. Expanded cells go
+// into the given SearchState, whose cameFrom points back toward the start the
+// cell was reached from
+class BidirectionalSearch {
+  MazeCore core;
+  SearchState state;
+  Queue forward; // cells waiting on the side of the top left
+  Queue backward; // cells waiting on the side of the bottom right
+  ICellSet reached; // cells either side has reached
+  ICellSet fromGoal; // cells the side of the bottom right has reached
+  int meetFrom; // the cell that reached the other side, or -1 until one does
+  int meetTo; // the cell of the other side it reached
+
+  // constructor, starts a search of the given maze
+  BidirectionalSearch(MazeCore core, SearchState state) {
+    int goal = core.grid.size() - 1;
+    this.core = core;
+    this.state = state;
+    this.forward = new Queue();
+    this.backward = new Queue();
+    this.reached = core.storage.cellSet(core.grid.size());
+    this.fromGoal = core.storage.cellSet(core.grid.size());
+    this.meetFrom = -1;
+    this.meetTo = -1;
+    state.reset(this.forward, 0);
+    this.reached.add(0);
+    if (goal == 0) {
+      this.meetFrom = 0;
+      this.meetTo = 0;
+    }
+    else {
+      state.cameFrom.set(goal, -1);
+      this.backward.add(goal);
+      this.reached.add(goal);
+      this.fromGoal.add(goal);
+    }
+  }
+
+  // have the two sides met?
+  boolean met() {
+    return this.meetFrom >= 0;
+  }
+
+  // is this search over, either met or out of cells to expand?
+  boolean done() {
+    return this.met() || this.forward.isEmpty() && this.backward.isEmpty();
+  }
+
+  // returns the cell expanded in this step, or -1 if the search is over
+  // EFFECT: expands one cell from the side with fewer cells waiting
+  int step() {
+    if (this.done()) {
+      return -1;
+    }
+    boolean fromGoal = this.forward.isEmpty()
+        || !this.backward.isEmpty() && this.backward.size < this.forward.size;
+    Queue side = fromGoal ? this.backward : this.forward;
+    int cell = side.remove();
+    MazeGrid grid = this.core.grid;
+    this.state.expand(cell);
+    if (grid.hasUp(cell)) {
+      this.reach(cell - grid.width, cell, side, fromGoal);
+    }
+    if (grid.hasLeft(cell)) {
+      this.reach(cell - 1, cell, side, fromGoal);
+    }
+    if (grid.hasRight(cell)) {
+      this.reach(cell + 1, cell, side, fromGoal);
+    }
+    if (grid.hasDown(cell)) {
+      this.reach(cell + grid.width, cell, side, fromGoal);
+    }
+    return cell;
+  }
+
+  // EFFECT: queues the given cell on the given side unless a side reached it
+  // already, and if that was the other side, records where the sides met
+  void reach(int cell, int from, Queue side, boolean fromGoal) {
+    if (!this.reached.contains(cell)) {
+      this.reached.add(cell);
+      if (fromGoal) {
+        this.fromGoal.add(cell);
+      }
+      this.state.cameFrom.set(cell, from);
+      side.add(cell);
+    }
+    else if (!this.met() && this.fromGoal.contains(cell) != fromGoal) {
+      this.meetFrom = from;
+      this.meetTo = cell;
+    }
+  }
+
+  // returns the path the search found from the bottom right back to the top
+  // left, or an empty path if the sides have not met
+  int[] path() {
+    if (!this.met()) {
+      return new int[0];
+    }
+    boolean flipped = this.fromGoal.contains(this.meetFrom);
+    int toStart = flipped ? this.meetTo : this.meetFrom;
+    int toGoal = flipped ? this.meetFrom : this.meetTo;
+    ICellInts cameFrom = this.state.cameFrom;
+    int length = 0;
+    for (int cell = toStart; cell != -1; cell = cameFrom.get(cell)) {
+      length += 1;
+    }
+    int goalSide = 0;
+    for (int cell = toGoal; cell != -1 && cell != toStart; cell = cameFrom.get(cell)) {
+      goalSide += 1;
+    }
+    int[] path = new int[length + goalSide];
+    int next = goalSide;
+    for (int cell = toGoal; next > 0; cell = cameFrom.get(cell)) {
+      next -= 1;
+      path[next] = cell;
+    }
+    next = goalSide;
+    for (int cell = toStart; cell != -1; cell = cameFrom.get(cell)) {
+      path[next] = cell;
+      next += 1;
+    }
+    return path;
+  }
+}
+
+// answers questions about the path between any two cells of a maze whose
+// passages form a spanning tree, where every two cells have exactly one path.
+// The tree is rooted at the bottom right, and every cell knows its parent, its
+// depth, and a jump pointer to an ancestor further up. Jumps are laid out so
+// that reaching any ancestor takes O(log n) steps, like binary lifting, while
+// keeping one pointer a cell instead of log n of them: a cell jumps twice as
+// far as its parent whenever its parent and its parent's jump cover the same
+// distance, and to its parent otherwise. Cells the bottom right cannot reach
+// have no paths
+class PathIndex {
+  MazeCore core;
+  SearchState tree; // the search out from the bottom right the index is built by
+  ICellInts parent; // the next cell toward the bottom right, -1 at the root
+  ICellInts depth; // steps to the bottom right, -1 if unreachable
+  ICellInts jump; // an ancestor at most twice as far as the parent's jump
+
+  // constructor, building the index for the given maze
+  PathIndex(MazeCore core) {
+    int cells = core.grid.size();
+    this.core = core;
+    this.tree = new SearchState(cells, new Queue(), core.storage);
+    this.parent = core.storage.cellInts(cells);
+    this.depth = core.storage.cellInts(cells);
+    this.jump = core.storage.cellInts(cells);
+    this.build();
+  }
+
+  // EFFECT: rebuilds this index for the maze as it is now, reusing its arrays,
+  // with a breadth-first search out from the bottom right so that every parent
+  // comes before its children. The search is this index's own, so building it
+  // leaves the maze's solver, distances and metrics alone
+  void build() {
+    SearchState tree = this.tree;
+    tree.reset(tree.worklist, this.core.grid.size() - 1);
+    while (!tree.worklist.isEmpty()) {
+      int next = tree.worklist.remove();
+      if (!tree.seen.contains(next)) {
+        this.core.expand(next, tree);
+      }
+    }
+    this.depth.fill(-1);
+    for (int i = 0; i < tree.expanded; i += 1) {
+      int cell = tree.order.get(i);
+      int up = tree.cameFrom.get(cell);
+      this.parent.set(cell, up);
+      this.depth.set(cell, up == -1 ? 0 : this.depth.get(up) + 1);
+      if (up == -1) {
+        this.jump.set(cell, cell);
+      }
+      else {
+        int upJump = this.jump.get(up);
+        int upJumpJump = this.jump.get(upJump);
+        if (this.depth.get(up) - this.depth.get(upJump)
+            == this.depth.get(upJump) - this.depth.get(upJumpJump)) {
+          this.jump.set(cell, upJumpJump);
+        }
+        else {
+          this.jump.set(cell, up);
+        }
+      }
+    }
+  }
+
+  // returns the ancestor of the given cell with the given depth, no deeper than
+  // the cell
+  int ancestor(int cell, int depth) {
+    while (this.depth.get(cell) > depth) {
+      int jump = this.jump.get(cell);
+      cell = this.depth.get(jump) >= depth ? jump : this.parent.get(cell);
+    }
+    return cell;
+  }
+
+  // returns the cell where the paths from the given cells to the bottom right
+  // meet, their lowest common ancestor, or -1 if either cannot reach it
+  int meeting(int a, int b) {
+    if (this.depth.get(a) < 0 || this.depth.get(b) < 0) {
+      return -1;
+    }
+    a = this.ancestor(a, this.depth.get(b));
+    b = this.ancestor(b, this.depth.get(a));
+    // cells at the same depth have jumps of the same length
+    while (a != b) {
+      if (this.jump.get(a) != this.jump.get(b)) {
+        a = this.jump.get(a);
+        b = this.jump.get(b);
+      }
+      else {
+        a = this.parent.get(a);
+        b = this.parent.get(b);
+      }
+    }
+    return a;
+  }
+
+  // returns the number of steps on the path between the given cells, or -1 if
+  // there is none
+  int pathLength(int a, int b) {
+    int meeting = this.meeting(a, b);
+    if (meeting < 0) {
+      return -1;
+    }
+    return this.depth.get(a) + this.depth.get(b) - 2 * this.depth.get(meeting);
+  }
+
+  // returns the cells on the path from the first given cell to the second, or
+  // an empty path if there is none
+  int[] path(int a, int b) {
+    int meeting = this.meeting(a, b);
+    if (meeting < 0) {
+      return new int[0];
+    }
+    int[] path = new int[this.pathLength(a, b) + 1];
+    int next = 0;
+    for (int cell = a; cell != meeting; cell = this.parent.get(cell)) {
+      path[next] = cell;
+      next += 1;
+    }
+    path[next] = meeting;
+    int last = path.length - 1;
+    for (int cell = b; cell != meeting; cell = this.parent.get(cell)) {
+      path[last] = cell;
+      last -= 1;
+    }
+    return path;
+  }
+}
+
+// represents a set of the cell indices of a maze
+interface ICellSet {
+  // is the given cell in this set?
+  boolean contains(int cell);
+
+  // EFFECT: adds the given cell to this set
+  void add(int cell);
+
+  // EFFECT: removes every cell from this set
+  void clear();
+}
+
+// represents a set of cell indices as one bit per cell
+class CellSet implements ICellSet {
+  long[] words;
+
+  // constructor, the set starts out empty
+  CellSet(int cells) {
+    this.words = new long[(cells + 63) >> 6];
+  }
+
+  public boolean contains(int cell) {
+    return (this.words[cell >> 6] & (1L << cell)) != 0;
+  }
+
+  public void add(int cell) {
+    this.words[cell >> 6] |= 1L << cell;
+  }
+
+  public void clear() {
+    Arrays.fill(this.words, 0L);
+  }
+}
+
+// represents a set of cell indices as one bit per cell in a direct buffer,
+// outside the Java heap, so it neither counts against the heap nor gets copied
+// by the garbage collector
+class OffHeapCellSet implements ICellSet {
+  LongBuffer bits;
+
+  // constructor, the set starts out empty
+  OffHeapCellSet(int cells) {
+    this.bits = ByteBuffer.allocateDirect(((cells + 63) >> 6) * 8).order(ByteOrder.nativeOrder())
+        .asLongBuffer();
+  }
+
+  public boolean contains(int cell) {
+    return (this.bits.get(cell >> 6) & (1L << cell)) != 0;
+  }
+
+  public void add(int cell) {
+    this.bits.put(cell >> 6, this.bits.get(cell >> 6) | 1L << cell);
+  }
+
+  public void clear() {
+    for (int i = 0; i < this.bits.capacity(); i += 1) {
+      this.bits.put(i, 0L);
+    }
+  }
+}
+
+// represents an int for every cell of a maze, all 0 to begin with
+interface ICellInts {
+  // returns the number of cells
+  int length();
+
+  // returns the int of the given cell
+  int get(int cell);
+
+  // EFFECT: sets the int of the given cell to the given value
+  void set(int cell, int value);
+
+  // EFFECT: sets the int of every cell to the given value
+  void fill(int value);
+}
+
+// represents an int for every cell of a maze in an array
+class CellInts implements ICellInts {
+  int[] values;
+
+  // constructor
+  CellInts(int cells) {
+    this.values = new int[cells];
+  }
+
+  public int length() {
+    return this.values.length;
+  }
+
+  public int get(int cell) {
+    return this.values[cell];
+  }
+
+  public void set(int cell, int value) {
+    this.values[cell] = value;
+  }
+
+  public void fill(int value) {
+    Arrays.fill(this.values, value);
+  }
+}
+
+// represents an int for every cell of a maze in direct buffers outside the
+// Java heap. A buffer holds at most 2 GB, so the cells are split into chunks of
+// 2^CHUNK_BITS cells with a buffer each
+class OffHeapCellInts implements ICellInts {
+  static final int CHUNK_BITS = 28; // 1 GB of ints per buffer
+  static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  IntBuffer[] chunks;
+  int length;
+
+  // constructor
+  OffHeapCellInts(int cells) {
+    this.length = cells;
+    this.chunks = new IntBuffer[(int) (((long) cells + CHUNK_MASK) >> CHUNK_BITS)];
+    for (int i = 0; i < this.chunks.length; i += 1) {
+      int size = Math.min(cells - (i << CHUNK_BITS), 1 << CHUNK_BITS);
+      this.chunks[i] = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+    }
+  }
+
+  public int length() {
+    return this.length;
+  }
+
+  public int get(int cell) {
+    return this.chunks[cell >>> CHUNK_BITS].get(cell & CHUNK_MASK);
+  }
+
+  public void set(int cell, int value) {
+    this.chunks[cell >>> CHUNK_BITS].put(cell & CHUNK_MASK, value);
+  }
+
+  public void fill(int value) {
+    for (IntBuffer chunk : this.chunks) {
+      for (int i = 0; i < chunk.capacity(); i += 1) {
+        chunk.put(i, value);
+      }
+    }
+  }
+}
+
+// represents where a maze keeps the walls of its grid and the scratch space its
+// generators and searches mark and trace cells in
+interface ICellStorage {
+  // returns an empty set of the given number of cells
+  ICellSet cellSet(int cells);
+
+  // returns an int for each of the given number of cells, all 0
+  ICellInts cellInts(int cells);
+}
+
+// keeps a maze's cells in arrays on the Java heap, the fastest to reach for
+// mazes that fit in it
+class HeapStorage implements ICellStorage {
+  public ICellSet cellSet(int cells) {
+    return new CellSet(cells);
+  }
+
+  public ICellInts cellInts(int cells) {
+    return new CellInts(cells);
+  }
+}
+
+// keeps a maze's cells in direct buffers outside the Java heap, for mazes too
+// big for the heap the JVM can be given. They are limited instead by
+// -XX:MaxDirectMemorySize, which defaults to the maximum heap size, and freed
+// once the buffers are collected. Kruskal's algorithm still keeps its edge
+// weights, sorted edges and union-find on the heap, so the other generators
+// suit these mazes better
+class OffHeapStorage implements ICellStorage {
+  public ICellSet cellSet(int cells) {
+    return new OffHeapCellSet(cells);
+  }
+
+  public ICellInts cellInts(int cells) {
+    return new OffHeapCellInts(cells);
+  }
+}
+
+// represents the bookkeeping of a search through the cells of a maze: the
+// cells still to visit, the cells already expanded in order, and the cell each
+// visited cell was first reached from
+class SearchState {
+  ICollection worklist;
+  ICellSet seen;
+  ICellInts cameFrom;
+  ICellInts order;
+  int expanded;
+
+  // constructor for a search over the given number of cells
+  SearchState(int cells, ICollection worklist) {
+    this(cells, worklist, new HeapStorage());
+  }
+
+  // constructor for a search over the given number of cells, kept in the given
+  // storage
+  SearchState(int cells, ICollection worklist, ICellStorage storage) {
+    this.worklist = worklist;
+    this.seen = storage.cellSet(cells);
+    this.cameFrom = storage.cellInts(cells);
+    this.order = storage.cellInts(cells);
+    this.expanded = 0;
+  }
+
+  // EFFECT: restarts this search from the given cell using the given worklist
+  void reset(ICollection worklist, int start) {
+    this.worklist = worklist;
+    this.worklist.clear();
+    this.seen.clear();
+    this.expanded = 0;
+    this.cameFrom.set(start, -1);
+    this.worklist.add(start);
+  }
+
+  // EFFECT: stops this search, emptying its worklist and forgetting every cell
+  // it expanded
+  void clear() {
+    this.worklist.clear();
+    this.seen.clear();
+    this.expanded = 0;
+  }
+
+  // EFFECT: records the given cell as expanded
+  void expand(int cell) {
+    this.seen.add(cell);
+    this.order.set(this.expanded, cell);
+    this.expanded += 1;
+  }
+
+  // EFFECT: queues the given cell, reached from the given one, unless it has
+  // already been expanded
+  void discover(int cell, int from) {
+    if (!this.seen.contains(cell)) {
+      this.cameFrom.set(cell, from);
+      this.worklist.add(cell);
+    }
+  }
+}
+
+// decides how many search steps each tick of an animated search runs, so that
+// the animation ends within a target time however big the maze is, without
+// one tick spending more than a time budget on searching
+class SearchScheduler {
+  long targetNanos; // how long a whole animation should take
+  long budgetNanos; // the most time one tick may spend searching
+  int maxSteps; // the most steps one tick may run
+  long started; // when the current animation started
+  long lastTick; // when the last tick was planned
+  double tickNanos; // measured time between ticks
+  double stepNanos; // measured time per search step, 0 until measured
+
+  // constructor
+  SearchScheduler(long targetNanos, long budgetNanos, int maxSteps) {
+    this.targetNanos = targetNanos;
+    this.budgetNanos = budgetNanos;
+    this.maxSteps = maxSteps;
+    this.tickNanos = 1000000000.0 / 60;
+    this.stepNanos = 0;
+  }
+
+  // EFFECT: starts timing a new animation at the given time
+  void start(long now) {
+    this.started = now;
+    this.lastTick = now;
+  }
+
+  // returns how many steps the tick at the given time should run, given that
+  // at most the given number of steps are left in the search
+  // EFFECT: updates the measured time between ticks
+  int plan(int remaining, long now) {
+    if (now > this.lastTick) {
+      this.tickNanos = this.tickNanos * 0.8 + (now - this.lastTick) * 0.2;
+    }
+    this.lastTick = now;
+    double ticksLeft = Math.max(1.0, (this.started + this.targetNanos - now) / this.tickNanos);
+    long wanted = (long) Math.ceil(remaining / ticksLeft);
+    long affordable = this.maxSteps;
+    if (this.stepNanos > 0) {
+      affordable = Math.min(affordable, (long) (this.budgetNanos / this.stepNanos));
+    }
+    return (int) Math.max(1, Math.min(wanted, affordable));
+  }
+
+  // EFFECT: records that the given number of steps took the given time
+  void record(int steps, long elapsed) {
+    if (steps > 0) {
+      double perStep = (double) elapsed / steps;
+      if (this.stepNanos == 0) {
+        this.stepNanos = perStep;
+      }
+      else {
+        this.stepNanos = this.stepNanos * 0.8 + perStep * 0.2;
+      }
+    }
+  }
+}
+
+// represents disjoint sets of the cells 0 .. size - 1 of a maze, stored as a
+// parent array with union by rank and path halving
+class UnionFind {
+  int[] parent;
+  byte[] rank;
+  int sets;
+  long hops; // parent links followed by find so far
+
+  // constructor, every cell starts out as its own representative
+  UnionFind(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    for (int i = 0; i < size; i += 1) {
+      this.parent[i] = i;
+    }
+    this.sets = size;
+  }
+
+  // returns the representative of the given cell
+  // EFFECT: points every other cell on the way up at its grandparent
+  int find(int cell) {
+    int[] parent = this.parent;
+    int hops = 0;
+    while (parent[cell] != cell) {
+      parent[cell] = parent[parent[cell]];
+      cell = parent[cell];
+      hops += 1;
+    }
+    this.hops += hops;
+    return cell;
+  }
+
+  // joins the sets of the two given cells, returning false if they were already
+  // in the same set
+  boolean union(int a, int b) {
+    int ra = this.find(a);
+    int rb = this.find(b);
+    if (ra == rb) {
+      return false;
+    }
+    if (this.rank[ra] < this.rank[rb]) {
+      this.parent[ra] = rb;
+    }
+    else if (this.rank[ra] > this.rank[rb]) {
+      this.parent[rb] = ra;
+    }
+    else {
+      this.parent[rb] = ra;
+      this.rank[ra] += 1;
+    }
+    this.sets -= 1;
+    return true;
+  }
+
+  // EFFECT: makes every cell its own representative again
+  void reset() {
+    for (int i = 0; i < this.parent.length; i += 1) {
+      this.parent[i] = i;
+    }
+    Arrays.fill(this.rank, (byte) 0);
+    this.sets = this.parent.length;
+    this.hops = 0;
+  }
+}
+
+// represents a player of the maze world. The cells it has left are kept in
+// order in a growable log, and also in a bitset so that checking whether it
+// has been to a cell takes constant time
+class Player {
+  int curr;
+  int[] path; // the cells this player has left, oldest first
+  int moves; // how many cells of path are in use
+  ICellSet visited; // the cells in path
+
+  // constructor for a player on the given cell of a maze of the given size
+  Player(int curr, int cells) {
+    this(curr, cells, new HeapStorage());
+  }
+
+  // constructor for a player on the given cell of a maze of the given size,
+  // keeping the cells it has been to in the given storage
+  Player(int curr, int cells, ICellStorage storage) {
+    this.curr = curr;
+    this.path = new int[16];
+    this.moves = 0;
+    this.visited = storage.cellSet(cells);
+  }
+
+  // changes this player's current cell to the given and adds the previous to
+  // this path
+  void moveTo(int to) {
+    if (this.moves == this.path.length) {
+      this.path = Arrays.copyOf(this.path, this.moves * 2);
+    }
+    this.path[this.moves] = this.curr;
+    this.moves += 1;
+    this.visited.add(this.curr);
+    this.curr = to;
+  }
+
+  // EFFECT: puts this player on the given cell with no cells left yet, keeping
+  // the space allocated for its path
+  void reset(int curr) {
+    this.curr = curr;
+    this.moves = 0;
+    this.visited.clear();
+  }
+
+  // has this player left the given cell before?
+  boolean hasVisited(int cell) {
+    return this.visited.contains(cell);
+  }
+}
+
+// examples and tests for maze, grid, and player
+class ExamplesMaze {
+
+  MazeGrid twoByTwoGrid;
+  MazeGrid threeByTwoGrid;
+
+  Maze oneByTwo;
+  Maze twoByOne;
+  Maze twoByThree;
+  Maze threeByTwo;
+  Maze oneByTwoTest;
+
+  Maze oneByOneTest;
+  Maze twoByTwoTest;
+  Maze threeByThreeTest;
+
+  Maze twoByTwo;
+  Maze threeByThree;
+  Maze fiveByFive;
+  Maze tenByTen;
+  Maze twentyByTwenty = new Maze(20, 20, new Random(1));
+  Maze hundredBySixty = new Maze(100, 60);
+  Maze twoHundredByTwoHundred = new Maze(200, 200);;
+
+  // initializes data and examples for test cases
+  void initData() {
+
+    // a 2x2 grid with passages 0-1, 0-2 and 1-3
+    this.twoByTwoGrid = new MazeGrid(2, 2);
+    this.twoByTwoGrid.open(0);
+    this.twoByTwoGrid.open(1);
+    this.twoByTwoGrid.open(3);
+
+    // a 3x2 grid with passages 1-2 and 1-4
+    this.threeByTwoGrid = new MazeGrid(3, 2);
+    this.threeByTwoGrid.open(2);
+    this.threeByTwoGrid.open(3);
+
+    fiveByFive = new Maze(5, 5);
+    tenByTen = new Maze(10, 10);
+    oneByTwo = new Maze(1, 2);
+    twoByOne = new Maze(2, 1);
+    twoByTwo = new Maze(2, 2);
+    twoByThree = new Maze(2, 3);
+    threeByTwo = new Maze(3, 2);
+
+    oneByOneTest = new Maze(1, 1, new Random(1));
+    oneByTwoTest = new Maze(1, 2, new Random(1));
+    twoByTwoTest = new Maze(2, 2, new Random(2));
+    threeByThreeTest = new Maze(3, 3, new Random(3));
+  }
+
+  // big bang for maze
+  void testBigBang(Tester t) {
+    this.initData();
+    int worldLength = this.hundredBySixty.width * 10;
+    int worldHeight = this.hundredBySixty.height * 10 + 90;
+    if (worldLength < 200) {
+      worldLength = 200;
+    }
+    if (worldHeight < 200) {
+      worldHeight = 200;
+    }
+    double tickRate = .001;
+    this.hundredBySixty.bigBang(worldLength, worldHeight, tickRate);
+  }
+
+  // tests the coordinate methods for class MazeGrid
+  void testGridCoordinates(Tester t) {
+    this.initData();
+    t.checkExpect(this.threeByTwoGrid.size(), 6);
+    t.checkExpect(this.threeByTwoGrid.cell(0, 0), 0);
+    t.checkExpect(this.threeByTwoGrid.cell(2, 1), 5);
+    t.checkExpect(this.threeByTwoGrid.x(5), 2);
+    t.checkExpect(this.threeByTwoGrid.y(5), 1);
+    t.checkExpect(this.threeByTwoGrid.x(3), 0);
+    t.checkExpect(this.threeByTwoGrid.y(2), 0);
+  }
+
+  // tests the passage methods for class MazeGrid
+  void testGridPassages(Tester t) {
+    this.initData();
+    t.checkExpect(this.threeByTwoGrid.hasRight(1), true);
+    t.checkExpect(this.threeByTwoGrid.hasLeft(2), true);
+    t.checkExpect(this.threeByTwoGrid.hasRight(0), false);
+    t.checkExpect(this.threeByTwoGrid.hasLeft(1), false);
+    t.checkExpect(this.threeByTwoGrid.hasDown(1), true);
+    t.checkExpect(this.threeByTwoGrid.hasUp(4), true);
+    t.checkExpect(this.threeByTwoGrid.hasUp(1), false);
+    t.checkExpect(this.threeByTwoGrid.hasDown(4), false);
+    // the first column never opens to the left, nor the first row upwards
+    t.checkExpect(this.threeByTwoGrid.hasLeft(3), false);
+    t.checkExpect(this.threeByTwoGrid.hasLeft(0), false);
+    t.checkExpect(this.threeByTwoGrid.hasUp(2), false);
+    t.checkExpect(this.twoByTwoGrid.hasDown(0), true);
+    t.checkExpect(this.twoByTwoGrid.hasDown(1), true);
+    t.checkExpect(this.twoByTwoGrid.hasRight(2), false);
+  }
+
+  // tests the edge methods for class MazeGrid
+  void testGridEdges(Tester t) {
+    this.initData();
+    t.checkExpect(this.threeByTwoGrid.hasEdge(0), true);
+    t.checkExpect(this.threeByTwoGrid.hasEdge(4), false);
+    t.checkExpect(this.threeByTwoGrid.hasEdge(5), true);
+    t.checkExpect(this.threeByTwoGrid.hasEdge(7), false);
+    t.checkExpect(this.threeByTwoGrid.hasEdge(8), true);
+    t.checkExpect(this.threeByTwoGrid.otherEnd(2), 2);
+    t.checkExpect(this.threeByTwoGrid.otherEnd(3), 4);
+    t.checkExpect(this.threeByTwoGrid.isOpen(2), true);
+    t.checkExpect(this.threeByTwoGrid.isOpen(0), false);
+    this.threeByTwoGrid.open(0);
+    t.checkExpect(this.threeByTwoGrid.isOpen(0), true);
+    t.checkExpect(this.threeByTwoGrid.hasLeft(1), true);
+    t.checkExpect(this.threeByTwoGrid.edgesInTree(), new int[] { 0, 2, 3 });
+    t.checkExpect(this.twoByTwoGrid.edgesInTree(), new int[] { 0, 1, 3 });
+  }
+
+  // tests the method makeScene for class Maze
+  void testMakeScene(Tester t) {
+    this.initData();
+    this.twoByTwoTest.makeScene();
+    ComputedPixelImage walls = this.twoByTwoTest.wallLayer;
+    this.twoByTwoTest.onKeyEvent("right");
+    this.twoByTwoTest.onKeyEvent("b");
+    this.twoByTwoTest.makeScene();
+    // the walls are only rasterized once, and only the new cells are painted
+    t.checkExpect(this.twoByTwoTest.wallLayer == walls, true);
+    t.checkExpect(this.twoByTwoTest.searchDrawn, 1);
+    t.checkExpect(this.twoByTwoTest.trailDrawn, 1);
+    this.twoByTwoTest.onTick();
+    this.twoByTwoTest.makeScene();
+    t.checkExpect(this.twoByTwoTest.searchDrawn, 2);
+    t.checkExpect(this.twoByTwoTest.searchLayer.getPixel(5, 5), Color.cyan);
+    this.twoByTwoTest.onKeyEvent("r");
+    t.checkExpect(this.twoByTwoTest.wallLayer, null);
+    this.twoByTwoTest.makeScene();
+    t.checkExpect(this.twoByTwoTest.wallLayer == walls, false);
+    t.checkExpect(this.twoByTwoTest.searchDrawn, 0);
+    t.checkExpect(this.twoByTwoTest.trailDrawn, 0);
+  }
+
+  // tests the method drawWalls for class Maze
+  void testDrawWalls(Tester t) {
+    this.initData();
+    // the passage between 1 and 3 is the only closed one
+    ComputedPixelImage walls = this.twoByTwoTest.drawWalls();
+    t.checkExpect(walls.getPixel(15, 10), Color.black);
+    t.checkExpect(walls.getPixel(5, 10).equals(Color.black), false);
+    t.checkExpect(walls.getPixel(10, 5).equals(Color.black), false);
+    t.checkExpect(walls.getPixel(10, 15).equals(Color.black), false);
+    // the outline
+    t.checkExpect(walls.getPixel(0, 7), Color.black);
+    t.checkExpect(walls.getPixel(19, 19), Color.black);
+  }
+
+  // tests the method fillCell for class Maze
+  void testFillCell(Tester t) {
+    this.initData();
+    ComputedPixelImage layer = new ComputedPixelImage(20, 20);
+    this.twoByTwoTest.fillCell(layer, 3, Color.cyan);
+    t.checkExpect(layer.getPixel(10, 10), Color.cyan);
+    t.checkExpect(layer.getPixel(19, 19), Color.cyan);
+    t.checkExpect(layer.getPixel(9, 19).equals(Color.cyan), false);
+  }
+
+  // tests the method makeUnsortedEdges for class Maze
+  void testMakeUnsortedEdges(Tester t) {
+    this.initData();
+    byte[] weights = this.twoByTwo.core.makeUnsortedEdges();
+    t.checkExpect(weights.length, 8);
+    for (int edge = 0; edge < 8; edge += 1) {
+      if (this.twoByTwo.core.grid.hasEdge(edge)) {
+        t.checkRange((int) weights[edge], 0, 50);
+      }
+      else {
+        t.checkExpect(weights[edge], (byte) -1);
+      }
+    }
+    t.checkExpect(this.oneByOneTest.core.makeUnsortedEdges(), new byte[] { -1, -1 });
+  }
+
+  // tests the method sortEdges for class Maze
+  void testSortEdges(Tester t) {
+    this.initData();
+    t.checkExpect(this.oneByOneTest.core.sortEdges(new byte[] { -1, -1 }), new int[0]);
+    t.checkExpect(this.oneByTwo.core.sortEdges(new byte[] { 0, 0, 10, 0 }),
+        new int[] { 0, 1, 3, 2 });
+    // edges of equal weight keep their order
+    t.checkExpect(this.twoByTwo.core.sortEdges(new byte[] { 10, 13, 32, -1, 25, 7, -1, 13 }),
+        new int[] { 5, 0, 1, 7, 4, 2 });
+
+    byte[] weights = this.tenByTen.core.makeUnsortedEdges();
+    int[] sorted = this.tenByTen.core.sortEdges(weights);
+    t.checkExpect(sorted.length, 180);
+    for (int i = 1; i < sorted.length; i += 1) {
+      t.checkExpect(weights[sorted[i - 1]] < weights[sorted[i]]
+          || weights[sorted[i - 1]] == weights[sorted[i]] && sorted[i - 1] < sorted[i], true);
+    }
+  }
+
+  // tests the unionFindData method for class Maze
+  void testUnionFindData(Tester t) {
+    this.initData();
+    Maze fourByFour = new Maze(4, 4); // initializing Mazes calls unionFindData
+    Maze threeBySix = new Maze(6, 3);
+    t.checkExpect(fourByFour.core.worklist.length, 24);
+    t.checkExpect(fourByFour.core.grid.edgesInTree().length, 15);
+    t.checkExpect(threeBySix.core.worklist.length, 27);
+    t.checkExpect(threeBySix.core.grid.edgesInTree().length, 17);
+    t.checkExpect(fourByFour.core.representatives.sets, 1);
+    t.checkExpect(threeBySix.core.representatives.sets, 1);
+    // one cell needs no edges at all
+    t.checkExpect(this.oneByOneTest.core.grid.edgesInTree().length, 0);
+    // the same seed always opens the same passages
+    t.checkExpect(new Maze(8, 8, new Random(4)).core.grid.edgesInTree(),
+        new Maze(8, 8, new Random(4)).core.grid.edgesInTree());
+  }
+
+  // tests the constructor for class MazeCore
+  void testMazeCore(Tester t) {
+    this.initData();
+    MazeCore core = new MazeCore(3, 3, new Random(3));
+    t.checkExpect(core.grid.edgesInTree(), this.threeByThreeTest.core.grid.edgesInTree());
+    t.checkExpect(core.solution(), this.threeByThreeTest.core.solution());
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze needs at least one cell, not 0x4"), "mazes.MazeCore",
+        0, 4, new Random());
+  }
+
+  // tests the method generate for class MazeCore
+  void testGenerate(Tester t) {
+    // big enough to run in parallel, yet the same maze as sequential Kruskal
+    MazeCore sequential = new MazeCore(300, 250, new Random(7));
+    MazeCore parallel = new MazeCore(300, 250, new Random(7), 4);
+    t.checkExpect(parallel.representatives, null);
+    t.checkExpect(parallel.grid.edgesInTree(), sequential.grid.edgesInTree());
+    t.checkExpect(parallel.solution(), sequential.solution());
+    // regenerating reuses the maze's pool and the builder's arrays
+    ParallelKruskal boruvka = parallel.boruvka;
+    int[] comp = boruvka.comp;
+    ForkJoinPool pool = parallel.pool;
+    parallel.regenerate();
+    sequential.regenerate();
+    t.checkExpect(parallel.boruvka == boruvka, true);
+    t.checkExpect(boruvka.comp == comp, true);
+    t.checkExpect(boruvka.pool == pool, true);
+    t.checkExpect(parallel.pool == pool, true);
+    t.checkExpect(parallel.grid.edgesInTree(), sequential.grid.edgesInTree());
+    t.checkConstructorException(new IllegalArgumentException("Cannot generate with 0 threads"),
+        "mazes.MazeCore", 3, 3, new Random(), 0);
+  }
+
+  // tests the class ParallelKruskal
+  void testParallelKruskal(Tester t) {
+    this.initData();
+    // whatever the thread count, the tree is the one sequential Kruskal built
+    for (int threads = 1; threads <= 3; threads += 1) {
+      MazeGrid grid = new MazeGrid(20, 20);
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      new ParallelKruskal(grid, pool).run(this.twentyByTwentyWeights());
+      pool.shutdown();
+      t.checkExpect(grid.edgesInTree(), this.twentyByTwenty.core.grid.edgesInTree());
+    }
+    ForkJoinPool pool = new ForkJoinPool(2);
+    MazeGrid single = new MazeGrid(1, 1);
+    new ParallelKruskal(single, pool).run(new byte[] { -1, -1 });
+    t.checkExpect(single.edgesInTree(), new int[0]);
+    // both components of the 2x1 grid pick the one edge, and 0 stays the root
+    ParallelKruskal pair = new ParallelKruskal(new MazeGrid(2, 1), pool);
+    pair.run(new byte[] { 5, -1, -1, -1 });
+    t.checkExpect(pair.grid.edgesInTree(), new int[] { 0 });
+    t.checkExpect(pair.comp, new int[] { 0, 0 });
+    t.checkExpect(pair.rootCount, 1);
+    // running again over the same grid reuses the arrays
+    int[] comp = pair.comp;
+    pair.grid.clear();
+    pair.run(new byte[] { 3, -1, -1, -1 });
+    t.checkExpect(pair.grid.edgesInTree(), new int[] { 0 });
+    t.checkExpect(pair.comp == comp, true);
+    pool.shutdown();
+  }
+
+  // returns the int of every cell of the given cell ints
+  int[] ints(ICellInts ints) {
+    int[] values = new int[ints.length()];
+    for (int cell = 0; cell < values.length; cell += 1) {
+      values[cell] = ints.get(cell);
+    }
+    return values;
+  }
+
+  // returns the items of the given collection in the order it gives them up
+  // EFFECT: empties the collection
+  int[] drain(ICollection items) {
+    int[] drained = new int[16];
+    int count = 0;
+    while (!items.isEmpty()) {
+      if (count == drained.length) {
+        drained = Arrays.copyOf(drained, count * 2);
+      }
+      drained[count] = items.remove();
+      count += 1;
+    }
+    return Arrays.copyOf(drained, count);
+  }
+
+  // returns a breadth-first search of the given maze with a queue from the
+  // given start, stopped when the given goal comes up, or run through if it is -1
+  SearchState queueOrder(MazeCore core, int start, int goal) {
+    SearchState state = new SearchState(core.grid.size(), new Queue());
+    state.reset(state.worklist, start);
+    while (!state.worklist.isEmpty()) {
+      int next = state.worklist.remove();
+      if (next == goal) {
+        return state;
+      }
+      else if (!state.seen.contains(next)) {
+        core.expand(next, state);
+      }
+    }
+    return state;
+  }
+
+  // returns the cells of the given set, which is over the given number of cells
+  int[] members(ICellSet set, int cells) {
+    int[] members = new int[cells];
+    int count = 0;
+    for (int cell = 0; cell < cells; cell += 1) {
+      if (set.contains(cell)) {
+        members[count] = cell;
+        count += 1;
+      }
+    }
+    return Arrays.copyOf(members, count);
+  }
+
+  // returns the edge weights the 20x20 example maze was generated from
+  byte[] twentyByTwentyWeights() {
+    MazeCore core = new MazeCore(20, 20, new Random(1));
+    core.rand = new Random(1);
+    return core.makeUnsortedEdges();
+  }
+
+  // tests the method offer for class ParallelKruskal
+  void testOffer(Tester t) {
+    ParallelKruskal builder = new ParallelKruskal(new MazeGrid(2, 1), null);
+    builder.best = new AtomicLongArray(new long[] { ParallelKruskal.NONE, 7 });
+    builder.offer(0, 9);
+    builder.offer(1, 9);
+    builder.offer(1, 3);
+    t.checkExpect(builder.best.get(0), 9L);
+    t.checkExpect(builder.best.get(1), 3L);
+  }
+
+  // returns the grid of the maze the given generator streams
+  MazeGrid streamGrid(EllerGenerator generator) throws IOException {
+    MazeGrid grid = new MazeGrid(generator.width, generator.height);
+    generator.generate((y, right, down) -> {
+      for (int x = 0; x < grid.width; x += 1) {
+        if (right.contains(x)) {
+          grid.open(grid.cell(x, y) * 2);
+        }
+        if (down.contains(x)) {
+          grid.open(grid.cell(x, y) * 2 + 1);
+        }
+      }
+    });
+    return grid;
+  }
+
+  // tests the class EllerGenerator
+  void testEllerGenerator(Tester t) throws IOException {
+    // every streamed maze is a spanning tree of its grid
+    int[][] sizes = { { 1, 1 }, { 1, 6 }, { 6, 1 }, { 2, 2 }, { 13, 9 }, { 40, 40 } };
+    for (int[] size : sizes) {
+      MazeGrid grid = this.streamGrid(new EllerGenerator(size[0], size[1], new Random(4)));
+      UnionFind joined = new UnionFind(grid.size());
+      for (int edge : grid.edgesInTree()) {
+        joined.union(edge >> 1, grid.otherEnd(edge));
+      }
+      t.checkExpect(grid.edgesInTree().length, grid.size() - 1);
+      t.checkExpect(joined.sets, 1);
+    }
+    // the same seed streams the same maze, written like MazeCore writes one
+    StringBuilder first = new StringBuilder();
+    new EllerGenerator(13, 9, new Random(4)).generate(new TextRowSink(first, 13));
+    StringBuilder second = new StringBuilder();
+    new EllerGenerator(13, 9, new Random(4)).generate(new TextRowSink(second, 13));
+    t.checkExpect(first.toString(), second.toString());
+    MazeCore core = new MazeCore(13, 9, new Random(4));
+    core.grid = this.streamGrid(new EllerGenerator(13, 9, new Random(4)));
+    StringBuilder whole = new StringBuilder();
+    core.writeText(whole);
+    t.checkExpect(first.toString(), whole.toString());
+    StringBuilder one = new StringBuilder();
+    new EllerGenerator(1, 1, new Random()).generate(new TextRowSink(one, 1));
+    t.checkExpect(one.toString(), "+--+\n|  |\n+--+\n");
+    // the generator only keeps one row
+    EllerGenerator tall = new EllerGenerator(3, 100000, new Random(4));
+    t.checkExpect(tall.right.words.length, 1);
+    t.checkExpect(tall.sets.length, 3);
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze needs at least one cell, not 0x5"),
+        "mazes.EllerGenerator", 0, 5, new Random());
+  }
+
+  // tests the methods joinRow, dropDown and nextRow for class EllerGenerator
+  void testEllerRows(Tester t) {
+    EllerGenerator generator = new EllerGenerator(4, 2, new Random(4));
+    generator.sets = new int[] { 0, 0, 2, 3 };
+    generator.joinRow(true);
+    t.checkExpect(generator.right.contains(0), false);
+    t.checkExpect(generator.right.contains(1), true);
+    t.checkExpect(generator.right.contains(2), true);
+    t.checkExpect(generator.sets, new int[] { 0, 0, 0, 0 });
+    generator.sets = new int[] { 1, 1, 2, 2 };
+    generator.down.clear();
+    generator.dropDown();
+    t.checkExpect(generator.joined, new boolean[] { false, true, true, false });
+    generator.down.clear();
+    generator.down.add(1);
+    generator.sets = new int[] { 3, 3, 2, 2 };
+    generator.nextRow();
+    t.checkExpect(generator.sets, new int[] { 2, 3, 1, 0 });
+  }
+
+  // tests the method reset for class UnionFind
+  void testReset(Tester t) {
+    UnionFind uf = new UnionFind(3);
+    uf.union(0, 1);
+    uf.union(1, 2);
+    uf.reset();
+    t.checkExpect(uf.parent, new int[] { 0, 1, 2 });
+    t.checkExpect(uf.rank, new byte[3]);
+    t.checkExpect(uf.sets, 3);
+  }
+
+  // tests the classes MazeFile and MazeFileWriter
+  void testMazeFile(Tester t) throws IOException {
+    this.initData();
+    Path dir = Files.createTempDirectory("mazes");
+    Path saved = dir.resolve("twenty.maze");
+    MazeFile.write(this.twentyByTwenty.core, 1, true, saved);
+    // 32 header bytes, 800 edge bits, then the length and cells of the solution
+    t.checkExpect(Files.size(saved), 32L + 13 * 8 + 4 + 4 * 55);
+    t.checkExpect(this.twentyByTwenty.core.solutionLength, 55);
+    MazeFile file = new MazeFile(saved);
+    t.checkExpect(file.width, 20);
+    t.checkExpect(file.height, 20);
+    t.checkExpect(file.seed, 1L);
+    t.checkExpect(file.hasSolution(), true);
+    t.checkExpect(file.bitmapWords, 13L);
+    t.checkExpect(file.regions.length, 1);
+    t.checkExpect(file.solution(), this.twentyByTwenty.core.solution());
+    t.checkExpect(file.toGrid().edgesInTree(), this.twentyByTwenty.core.grid.edgesInTree());
+    for (int edge = 0; edge < 800; edge += 1) {
+      t.checkExpect(file.isOpen(edge), this.twentyByTwenty.core.grid.isOpen(edge));
+    }
+    // a loaded maze plays like the one that was saved
+    MazeCore loaded = new MazeCore(file);
+    t.checkExpect(loaded.grid.edgesInTree(), this.twentyByTwenty.core.grid.edgesInTree());
+    t.checkExpect(loaded.solution(), this.twentyByTwenty.core.solution());
+    t.checkExpect(this.members(loaded.onSolution, 400),
+        this.members(this.twentyByTwenty.core.onSolution, 400));
+    t.checkExpect(new Maze(loaded).width, 20);
+    // into the storage and with the generator asked for
+    WilsonGenerator wilson = new WilsonGenerator();
+    MazeCore offHeap = new MazeCore(file, wilson, new OffHeapStorage());
+    t.checkExpect(offHeap.grid.right instanceof OffHeapCellSet, true);
+    t.checkExpect(offHeap.distances instanceof OffHeapCellInts, true);
+    t.checkExpect(offHeap.generator == wilson, true);
+    t.checkExpect(offHeap.solution(), this.twentyByTwenty.core.solution());
+    t.checkExpect(offHeap.distanceToGoal(0), 54);
+    // without a saved solution the loaded maze is solved again
+    Path bare = dir.resolve("bare.maze");
+    MazeFile.write(this.twoByTwoTest.core, 2, false, bare);
+    t.checkExpect(Files.size(bare), 40L);
+    t.checkExpect(new MazeFile(bare).hasSolution(), false);
+    t.checkExpect(new MazeCore(new MazeFile(bare)).solution(), new int[] { 3, 2, 0 });
+    // a streamed maze saves the same bits as the grid it streams
+    Path streamed = dir.resolve("streamed.maze");
+    try (MazeFileWriter out = new MazeFileWriter(Files.newOutputStream(streamed), 13, 9, 4, 0)) {
+      new EllerGenerator(13, 9, new Random(4)).generate(out);
+      t.checkExpect(out.words, 3L);
+    }
+    t.checkExpect(new MazeFile(streamed).toGrid().edgesInTree(),
+        this.streamGrid(new EllerGenerator(13, 9, new Random(4))).edgesInTree());
+    Path junk = dir.resolve("junk.maze");
+    Files.write(junk, new byte[40]);
+    t.checkException(new IOException("Not a maze file: " + junk), this, "openMazeFile", junk);
+    byte[] cut = Arrays.copyOf(Files.readAllBytes(saved), 100);
+    Files.write(junk, cut);
+    t.checkException(new IOException("Truncated maze file: " + junk), this, "openMazeFile",
+        junk);
+    // saved solution lengths that are negative or longer than the maze
+    byte[] corrupt = Files.readAllBytes(saved);
+    corrupt[136] = (byte) 0xFF;
+    Files.write(junk, corrupt);
+    t.checkException(new IOException("Corrupt maze file: " + junk), this, "openMazeFile",
+        junk);
+    corrupt = Arrays.copyOf(Files.readAllBytes(saved), 136 + 4 + 4 * 401);
+    corrupt[138] = 0x01;
+    corrupt[139] = (byte) 0x91;
+    Files.write(junk, corrupt);
+    t.checkException(new IOException("Corrupt maze file: " + junk), this, "openMazeFile",
+        junk);
+    // and saved solution cells outside the maze
+    corrupt = Files.readAllBytes(saved);
+    corrupt[142] = 0x01;
+    corrupt[143] = (byte) 0x90;
+    Files.write(junk, corrupt);
+    t.checkException(new IOException("Corrupt maze file: " + junk), this, "openMazeFile",
+        junk);
+    corrupt[140] = (byte) 0x80;
+    corrupt[142] = 0x00;
+    Files.write(junk, corrupt);
+    t.checkException(new IOException("Corrupt maze file: " + junk), this, "openMazeFile",
+        junk);
+    cut[7] = 2;
+    Files.write(junk, cut);
+    t.checkException(new IOException("Unsupported maze file version: 2"), this, "openMazeFile",
+        junk);
+    for (Path path : new Path[] { saved, bare, streamed, junk, dir }) {
+      Files.delete(path);
+    }
+  }
+
+  // returns the maze file at the given path
+  MazeFile openMazeFile(Path path) throws IOException {
+    return new MazeFile(path);
+  }
+
+  // tests the method cell for class MazeFileWriter
+  void testMazeFileWriter(Tester t) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    MazeFileWriter out = new MazeFileWriter(bytes, 33, 1, 9, 0);
+    out.cell(true, false);
+    out.cell(false, true);
+    t.checkExpect(out.word, 9L);
+    t.checkExpect(out.bits, 4);
+    for (int i = 2; i < 33; i += 1) {
+      out.cell(true, true);
+    }
+    t.checkExpect(out.words, 1L);
+    t.checkExpect(out.bits, 2);
+    out.close();
+    t.checkExpect(out.words, 2L);
+    t.checkExpect(bytes.size(), 32 + 16);
+  }
+
+  // tests the method deadEnds for class MazeCore and degree for class MazeGrid
+  void testDeadEnds(Tester t) {
+    this.initData();
+    t.checkExpect(this.twoByTwoGrid.degree(0), 2);
+    t.checkExpect(this.twoByTwoGrid.degree(2), 1);
+    t.checkExpect(this.threeByTwoGrid.degree(1), 2);
+    t.checkExpect(this.threeByTwoGrid.degree(0), 0);
+    // 0 - 1 and 0 - 2 - 3
+    t.checkExpect(this.twoByTwoTest.core.deadEnds(), 2);
+    t.checkExpect(this.oneByTwoTest.core.deadEnds(), 2);
+    t.checkExpect(this.oneByOneTest.core.deadEnds(), 0);
+  }
+
+  // tests the method writeText for class MazeCore
+  void testWriteText(Tester t) throws IOException {
+    this.initData();
+    StringBuilder text = new StringBuilder();
+    this.twoByTwoTest.core.writeText(text);
+    t.checkExpect(text.toString(), "+--+--+\n|     |\n+  +--+\n|     |\n+--+--+\n");
+  }
+
+  // tests the class HeadlessMaze
+  void testHeadlessMaze(Tester t) throws IOException {
+    HeadlessMaze run = new HeadlessMaze(new String[] { "2", "2", "2", "--print" });
+    t.checkExpect(run.width, 2);
+    t.checkExpect(run.seed, 2L);
+    t.checkExpect(run.print, true);
+    t.checkExpect(run.out, null);
+    ByteArrayOutputStream console = new ByteArrayOutputStream();
+    String stats = run.run(new PrintStream(console));
+    t.checkExpect(stats.startsWith("size=2x2 seed=2 solution=3 deadEnds=2 millis="), true);
+    t.checkExpect(console.toString(), "+--+--+\n|     |\n+  +--+\n|     |\n+--+--+\n");
+    t.checkExpect(new HeadlessMaze(new String[] { "--out", "m.txt", "5", "7" }).out, "m.txt");
+    t.checkExpect(new HeadlessMaze(new String[] { "5", "7", "--threads", "4" }).threads, 4);
+    t.checkExpect(run.threads, 1);
+    HeadlessMaze streamed = new HeadlessMaze(new String[] { "2", "2", "2", "--stream",
+        "--print" });
+    t.checkExpect(streamed.stream, true);
+    console.reset();
+    stats = streamed.run(new PrintStream(console));
+    t.checkExpect(stats.startsWith("size=2x2 seed=2 streamed millis="), true);
+    StringBuilder expected = new StringBuilder();
+    new EllerGenerator(2, 2, new Random(2)).generate(new TextRowSink(expected, 2));
+    t.checkExpect(console.toString(), expected.toString());
+    t.checkConstructorException(new IllegalArgumentException("Usage: HeadlessMaze <width> "
+        + "<height> [seed] [--print] [--out <file>] [--threads <n>] [--stream] "
+        + "[--solver <name>] [--metrics] [--generator <name>] [--off-heap] [--png <file>] "
+        + "[--scale <pixels>]"), "mazes.HeadlessMaze",
+        (Object) new String[] { "5" });
+    t.checkConstructorException(
+        new IllegalArgumentException("Not a number: For input string: \"x\""), "mazes.HeadlessMaze",
+        (Object) new String[] { "5", "x" });
+    t.checkConstructorException(new IllegalArgumentException("--out needs a file name"),
+        "mazes.HeadlessMaze", (Object) new String[] { "5", "5", "--out" });
+    HeadlessMaze solved = new HeadlessMaze(new String[] { "2", "2", "2", "--solver", "astar" });
+    t.checkExpect(solved.solver, "astar");
+    t.checkExpect(solved.run(new PrintStream(console)).contains(" solver=astar expanded=3 "),
+        true);
+    t.checkConstructorException(new IllegalArgumentException("Unknown solver: bogo"),
+        "mazes.HeadlessMaze", (Object) new String[] { "5", "5", "--solver", "bogo" });
+    HeadlessMaze wilson = new HeadlessMaze(new String[] { "2", "2", "2", "--generator",
+        "wilson" });
+    t.checkExpect(wilson.generator, "wilson");
+    t.checkExpect(run.generator, "kruskal");
+    t.checkExpect(wilson.run(new PrintStream(console)).startsWith("size=2x2 seed=2 solution=3 "),
+        true);
+    t.checkConstructorException(new IllegalArgumentException("Unknown generator: prim"),
+        "mazes.HeadlessMaze", (Object) new String[] { "5", "5", "--generator", "prim" });
+    HeadlessMaze offHeap = new HeadlessMaze(new String[] { "2", "2", "2", "--off-heap",
+        "--print" });
+    t.checkExpect(offHeap.offHeap, true);
+    t.checkExpect(run.offHeap, false);
+    console.reset();
+    t.checkExpect(offHeap.run(new PrintStream(console)).startsWith("size=2x2 seed=2 solution=3 "),
+        true);
+    t.checkExpect(console.toString(), "+--+--+\n|     |\n+  +--+\n|     |\n+--+--+\n");
+  }
+
+  // tests the methods measureDistances and distanceToGoal for class MazeCore
+  void testDistances(Tester t) {
+    this.initData();
+    // the 2x2 maze has passages 0-1, 0-2 and 2-3
+    t.checkExpect(this.ints(this.twoByTwoTest.core.distances), new int[] { 2, 3, 1, 0 });
+    t.checkExpect(this.twoByTwoTest.core.distanceToGoal(1), 3);
+    t.checkExpect(this.ints(this.oneByOneTest.core.distances), new int[] { 0 });
+    // each cell of the solution is as far from the goal as its place in it
+    MazeCore core = this.twentyByTwenty.core;
+    for (int i = 0; i < core.solutionLength; i += 1) {
+      t.checkExpect(core.distanceToGoal(core.solution()[i]), i);
+    }
+    // every cell but the goal has exactly one neighbor a step closer
+    for (int cell = 0; cell < 399; cell += 1) {
+      int closer = 0;
+      int d = core.distanceToGoal(cell);
+      if (core.grid.hasUp(cell) && core.distanceToGoal(cell - 20) == d - 1) {
+        closer += 1;
+      }
+      if (core.grid.hasLeft(cell) && core.distanceToGoal(cell - 1) == d - 1) {
+        closer += 1;
+      }
+      if (core.grid.hasRight(cell) && core.distanceToGoal(cell + 1) == d - 1) {
+        closer += 1;
+      }
+      if (core.grid.hasDown(cell) && core.distanceToGoal(cell + 20) == d - 1) {
+        closer += 1;
+      }
+      t.checkExpect(closer, 1);
+    }
+    // cells walled off from the goal cannot reach it
+    this.twoByTwoTest.core.grid = new MazeGrid(2, 2);
+    this.twoByTwoTest.core.grid.open(3);
+    this.twoByTwoTest.core.measureDistances();
+    t.checkExpect(this.ints(this.twoByTwoTest.core.distances), new int[] { -1, 1, -1, 0 });
+  }
+
+  // tests the method searchToGoal for class MazeCore
+  void testSearchToGoal(Tester t) {
+    this.initData();
+    SearchState state = new SearchState(4, new Queue());
+    t.checkExpect(this.twoByTwoTest.core.searchToGoal(state, state.worklist), 3);
+    t.checkExpect(state.cameFrom.get(3), 2);
+    t.checkExpect(this.twoByTwoTest.core.searchToGoal(state, new Stack()), 2);
+    t.checkExpect(this.oneByOneTest.core.searchToGoal(state, new Stack()), 0);
+    // a grid without passages never reaches the goal
+    this.twoByTwoTest.core.grid = new MazeGrid(2, 2);
+    t.checkExpect(this.twoByTwoTest.core.searchToGoal(state, new Stack()), -1);
+    this.twoByTwoTest.core.makeSolution();
+    t.checkExpect(this.twoByTwoTest.core.solution(), new int[0]);
+    t.checkExpect(this.twoByTwoTest.core.solutionLength, 0);
+  }
+
+  // tests the class MazeBatch
+  void testMazeBatch(Tester t) throws IOException, InterruptedException {
+    MazeBatch batch = new MazeBatch(new String[] { "25", "12", "8", "--seed", "3",
+        "--threads", "3" });
+    t.checkExpect(batch.count, 25);
+    t.checkExpect(batch.width, 12);
+    t.checkExpect(batch.height, 8);
+    t.checkExpect(batch.seed, 3L);
+    t.checkExpect(batch.threads, 3);
+    t.checkExpect(batch.virtual, false);
+    ByteArrayOutputStream console = new ByteArrayOutputStream();
+    String report = batch.run(new PrintStream(console));
+    t.checkExpect(report.startsWith("mazes=25 size=12x8 threads=3 seconds="), true);
+    t.checkExpect(report.contains(" p50="), true);
+    // one line per maze, each the same as generating that maze alone
+    String[] lines = console.toString().split("\n");
+    t.checkExpect(lines.length, 25);
+    boolean[] seen = new boolean[25];
+    for (String line : lines) {
+      int index = Integer.parseInt(line.substring(5, line.indexOf(' ')));
+      seen[index] = true;
+      long seed = MazeBatch.taskSeed(3, index);
+      MazeCore core = new MazeCore(12, 8, new Random(seed));
+      t.checkExpect(line.startsWith("maze=" + index + " seed=" + seed + " solution="
+          + core.solutionLength + " deadEnds=" + core.deadEnds() + " millis="), true);
+    }
+    boolean[] all = new boolean[25];
+    Arrays.fill(all, true);
+    t.checkExpect(seen, all);
+    t.checkExpect(MazeBatch.taskSeed(3, 0) == MazeBatch.taskSeed(3, 1), false);
+    t.checkExpect(MazeBatch.taskSeed(3, 7), MazeBatch.taskSeed(3, 7));
+    // to a file instead of the console
+    Path results = Files.createTempFile("batch", ".txt");
+    MazeBatch toFile = new MazeBatch(new String[] { "4", "3", "3", "--out", results.toString(),
+        "--threads", "2" });
+    console.reset();
+    toFile.run(new PrintStream(console));
+    t.checkExpect(console.size(), 0);
+    t.checkExpect(Files.readAllLines(results).size(), 4);
+    Files.delete(results);
+    MazeBatch virtual = new MazeBatch(new String[] { "2", "3", "3", "--virtual" });
+    t.checkExpect(virtual.virtual, true);
+    boolean hasVirtual = Arrays.stream(Executors.class.getMethods())
+        .anyMatch(m -> m.getName().equals("newVirtualThreadPerTaskExecutor"));
+    if (hasVirtual) {
+      t.checkExpect(virtual.run(new PrintStream(console)).contains("threads=virtual"), true);
+    }
+    else {
+      t.checkException(new IllegalStateException("Virtual threads need Java 21 or later"),
+          virtual, "makeExecutor");
+    }
+    t.checkConstructorException(new IllegalArgumentException("Usage: MazeBatch <count> "
+        + "<width> <height> [--seed <seed>] [--threads <n>] [--virtual] [--out <file>]"),
+        "mazes.MazeBatch", (Object) new String[] { "4", "3" });
+    t.checkConstructorException(
+        new IllegalArgumentException("A batch needs at least one maze and one thread"),
+        "mazes.MazeBatch", (Object) new String[] { "4", "3", "3", "--threads", "0" });
+    t.checkConstructorException(new IllegalArgumentException("--seed needs a value"),
+        "mazes.MazeBatch", (Object) new String[] { "4", "3", "3", "--seed" });
+  }
+
+  // tests the method percentile for class MazeBatch
+  void testPercentile(Tester t) {
+    long[] sorted = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+    t.checkExpect(MazeBatch.percentile(sorted, 50), 5L);
+    t.checkExpect(MazeBatch.percentile(sorted, 90), 9L);
+    t.checkExpect(MazeBatch.percentile(sorted, 99), 10L);
+    t.checkExpect(MazeBatch.percentile(sorted, 0), 1L);
+    t.checkExpect(MazeBatch.percentile(new long[] { 4 }, 99), 4L);
+  }
+
+  // tests the method regenerate for class MazeCore
+  void testRegenerate(Tester t) {
+    MazeCore core = new MazeCore(30, 20, new Random(5));
+    byte[] weights = core.weights;
+    int[] worklist = core.worklist;
+    UnionFind representatives = core.representatives;
+    ICellInts solutionCells = core.solutionCells;
+    ICellSet right = core.grid.right;
+    core.regenerate();
+    // the same maze as a fresh one generated next from the same random numbers
+    Random rand = new Random(5);
+    new MazeCore(30, 20, rand);
+    MazeCore next = new MazeCore(30, 20, rand);
+    t.checkExpect(core.grid.edgesInTree(), next.grid.edgesInTree());
+    t.checkExpect(core.solution(), next.solution());
+    t.checkExpect(core.distances, next.distances);
+    t.checkExpect(this.members(core.onSolution, core.grid.size()),
+        this.members(next.onSolution, core.grid.size()));
+    t.checkExpect(core.representatives.sets, 1);
+    t.checkExpect(core.representatives.hops, next.representatives.hops);
+    // in the same buffers
+    t.checkExpect(core.weights == weights, true);
+    t.checkExpect(core.worklist == worklist, true);
+    t.checkExpect(core.representatives == representatives, true);
+    t.checkExpect(core.solutionCells == solutionCells, true);
+    t.checkExpect(core.grid.right == right, true);
+    t.checkExpect(core.metrics.runs[MazeMetrics.KRUSKAL], 2);
+  }
+
+  // tests that resetting a maze reuses every buffer of the maze it replaces
+  void testResetAllocations(Tester t) {
+    Maze maze = new Maze(60, 40, new Random(6));
+    maze.onKeyEvent("right");
+    maze.onKeyEvent("b");
+    // lets the buffers grow to fit
+    maze.onKeyEvent("r");
+    MazeCore core = maze.core;
+    Object[] buffers = { core.grid, core.grid.right, core.grid.down, core.weights, core.starts,
+        core.worklist, core.representatives, core.representatives.parent, core.solver,
+        core.solver.order, core.solver.cameFrom, core.solver.seen, core.distances,
+        core.solutionCells, core.onSolution, maze.player, maze.player.path,
+        maze.player.visited, maze.searchState, maze.searchState.order };
+    for (int i = 0; i < 20; i += 1) {
+      maze.onKeyEvent("r");
+    }
+    Object[] after = { core.grid, core.grid.right, core.grid.down, core.weights, core.starts,
+        core.worklist, core.representatives, core.representatives.parent, core.solver,
+        core.solver.order, core.solver.cameFrom, core.solver.seen, core.distances,
+        core.solutionCells, core.onSolution, maze.player, maze.player.path,
+        maze.player.visited, maze.searchState, maze.searchState.order };
+    boolean same = maze.core == core;
+    for (int i = 0; i < buffers.length; i += 1) {
+      same = same && buffers[i] == after[i];
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(maze.player.moves, 0);
+    t.checkExpect(maze.searchState.expanded, 0);
+    t.checkExpect(maze.core.solutionLength > 0, true);
+  }
+
+  // tests the methods reset for class Player and clear for classes SearchState
+  // and MazeGrid
+  void testResetInPlace(Tester t) {
+    Player p = new Player(0, 4);
+    p.moveTo(1);
+    p.moveTo(3);
+    p.reset(2);
+    t.checkExpect(p.curr, 2);
+    t.checkExpect(p.moves, 0);
+    t.checkExpect(p.hasVisited(1), false);
+    SearchState state = new SearchState(4, new Stack());
+    state.reset(state.worklist, 0);
+    state.expand(0);
+    state.clear();
+    t.checkExpect(state.worklist.isEmpty(), true);
+    t.checkExpect(state.seen.contains(0), false);
+    t.checkExpect(state.expanded, 0);
+    MazeGrid grid = new MazeGrid(2, 2);
+    grid.open(0);
+    grid.open(3);
+    grid.clear();
+    t.checkExpect(grid.edgesInTree(), new int[0]);
+  }
+
+  // tests the classes KruskalGenerator, BacktrackerGenerator and
+  // WilsonGenerator, and the method generator for class MazeCore
+  void testGenerators(Tester t) {
+    this.initData();
+    for (String name : MazeCore.GENERATORS) {
+      MazeCore core = new MazeCore(17, 11, new Random(3), MazeCore.generator(name, 1));
+      // every generator opens a spanning tree: one fewer passage than cells,
+      // joining them all, so the solution reaches the goal
+      t.checkExpect(core.grid.edgesInTree().length, 17 * 11 - 1);
+      UnionFind joined = new UnionFind(17 * 11);
+      for (int edge : core.grid.edgesInTree()) {
+        joined.union(edge >> 1, core.grid.otherEnd(edge));
+      }
+      t.checkExpect(joined.sets, 1);
+      t.checkExpect(core.solutionLength > 0, true);
+      // and the same seed gives the same maze
+      MazeCore again = new MazeCore(17, 11, new Random(3), MazeCore.generator(name, 1));
+      t.checkExpect(again.grid.edgesInTree(), core.grid.edgesInTree());
+      MazeCore single = new MazeCore(1, 1, new Random(3), MazeCore.generator(name, 1));
+      t.checkExpect(single.solutionLength, 1);
+    }
+    // Kruskal's algorithm through the interface gives the maze it always has
+    MazeCore kruskal = new MazeCore(20, 20, new Random(1), new KruskalGenerator(1));
+    t.checkExpect(kruskal.grid.edgesInTree(),
+        this.twentyByTwenty.core.grid.edgesInTree());
+    t.checkExpect(kruskal.metrics.runs[MazeMetrics.CARVE], 0);
+    // the others time themselves as carving, and reuse their buffers
+    BacktrackerGenerator backtracker = new BacktrackerGenerator();
+    MazeCore carved = new MazeCore(9, 9, new Random(4), backtracker);
+    t.checkExpect(carved.metrics.runs[MazeMetrics.CARVE], 1);
+    ICellInts stack = backtracker.stack;
+    carved.regenerate();
+    t.checkExpect(backtracker.stack == stack, true);
+    t.checkExpect(carved.grid.edgesInTree().length, 80);
+    WilsonGenerator wilson = new WilsonGenerator();
+    MazeCore uniform = new MazeCore(9, 9, new Random(4), wilson);
+    ICellInts next = wilson.next;
+    uniform.regenerate();
+    t.checkExpect(wilson.next == next, true);
+    t.checkExpect(uniform.grid.edgesInTree().length, 80);
+    // each neighbor lies inside the grid and next to the cell
+    MazeGrid grid = new MazeGrid(3, 3);
+    for (int i = 0; i < 20; i += 1) {
+      int neighbor = wilson.randomNeighbor(grid, 0, new Random(i));
+      t.checkExpect(neighbor == 1 || neighbor == 3, true);
+    }
+    t.checkExpect(grid.edgeBetween(4, 5), 8);
+    t.checkExpect(grid.edgeBetween(4, 1), 3);
+    t.checkExpect(backtracker.unvisitedNeighbors(new MazeGrid(9, 9), 40), 0);
+    t.checkException(new IllegalArgumentException("Unknown generator: prim"), new MazeCore(1, 1,
+        new Random(1)), "generator", "prim", 1);
+    t.checkConstructorException(new IllegalArgumentException("Cannot generate with 0 threads"),
+        "mazes.KruskalGenerator", 0);
+  }
+
+  // tests the class MazeMetrics
+  void testMazeMetrics(Tester t) {
+    this.initData();
+    MazeMetrics metrics = this.twentyByTwenty.core.metrics;
+    t.checkExpect(metrics.cells, 400);
+    t.checkExpect(metrics.runs, new int[] { 1, 1, 1, 1, 1, 0, 0 });
+    t.checkExpect(metrics.unions, 399L);
+    t.checkExpect(metrics.findHops, this.twentyByTwenty.core.representatives.hops);
+    t.checkRange(metrics.findHops, 1L, 100000L);
+    t.checkExpect(metrics.expanded, 400L);
+    // drawing times the scene and counts its images, layers only the first time
+    this.twentyByTwenty.makeScene();
+    t.checkExpect(metrics.runs[MazeMetrics.SCENE], 1);
+    t.checkExpect(metrics.images, 8);
+    this.twentyByTwenty.makeScene();
+    t.checkExpect(metrics.images, 5);
+    this.twentyByTwenty.onKeyEvent("i");
+    this.twentyByTwenty.makeScene();
+    t.checkExpect(metrics.images, 7);
+    t.checkExpect(this.twentyByTwenty.showMetrics, true);
+    // searches count the cells they expand
+    MazeMetrics before = metrics.snapshot();
+    this.twentyByTwenty.onKeyEvent("b");
+    this.twentyByTwenty.onKeyEvent("m");
+    t.checkExpect(metrics.expanded, before.expanded + 2);
+    t.checkExpect(before.runs[MazeMetrics.SCENE], 3);
+    // a snapshot does not change with the metrics it was taken of
+    metrics.stop(MazeMetrics.SCENE, System.nanoTime());
+    t.checkExpect(before.runs[MazeMetrics.SCENE], 3);
+    t.checkExpect(metrics.runs[MazeMetrics.SCENE], 4);
+    MazeMetrics fresh = new MazeMetrics(4);
+    fresh.stop(MazeMetrics.GRID, System.nanoTime() - 2500000);
+    t.checkRange(fresh.nanos[MazeMetrics.GRID], 2500000L, 1000000000L);
+    t.checkExpect(fresh.describeTimes().startsWith("grid=2."), true);
+    t.checkExpect(fresh.describeTimes().endsWith(" solve=0.000ms scene=0.000ms carve=0.000ms"),
+        true);
+    t.checkExpect(fresh.describeCounts(), "findHops=0 unions=0 expanded=0 images=0");
+    // the parallel builder joins every cell without counting lookups
+    MazeCore parallel = new MazeCore(300, 250, new Random(7), 2);
+    t.checkExpect(parallel.metrics.unions, 74999L);
+    t.checkExpect(parallel.metrics.runs[MazeMetrics.SORT], 0);
+  }
+
+  // tests the find method for class UnionFind
+  void testFind(Tester t) {
+    UnionFind sets = new UnionFind(4);
+    for (int i = 0; i < 4; i += 1) {
+      t.checkExpect(sets.find(i), i);
+    }
+    sets.parent = new int[] { 0, 2, 3, 3 };
+    t.checkExpect(sets.find(0), 0);
+    t.checkExpect(sets.find(1), 3);
+    t.checkExpect(sets.find(2), 3);
+    t.checkExpect(sets.find(3), 3);
+    // path halving pointed 1 at its grandparent
+    t.checkExpect(sets.parent[1], 3);
+  }
+
+  // tests the union method for class UnionFind
+  void testUnion(Tester t) {
+    UnionFind sets = new UnionFind(4);
+    t.checkExpect(sets.union(1, 0), true);
+    t.checkExpect(sets.union(2, 1), true);
+    t.checkExpect(sets.union(3, 2), true);
+    t.checkExpect(sets.union(0, 3), false);
+    t.checkExpect(sets.sets, 1);
+    for (int i = 0; i < 4; i += 1) {
+      t.checkExpect(sets.find(i), sets.find(0));
+    }
+    // the deeper tree stays the root
+    t.checkExpect(sets.find(0), 1);
+    t.checkExpect(sets.rank[1], (byte) 1);
+  }
+
+  // tests the method makeSolution for class Maze
+  void testMakeSolution(Tester t) {
+    this.initData();
+    this.twoByTwoTest.core.makeSolution();
+    t.checkExpect(this.twoByTwoTest.core.solution(), new int[] { 3, 2, 0 });
+    t.checkExpect(this.twoByTwoTest.core.solutionLength, 3);
+    t.checkExpect(this.twoByTwoTest.core.onSolution.contains(0), true);
+    t.checkExpect(this.twoByTwoTest.core.onSolution.contains(1), false);
+    t.checkExpect(this.twoByTwoTest.core.onSolution.contains(2), true);
+    t.checkExpect(this.twoByTwoTest.core.onSolution.contains(3), true);
+    t.checkExpect(this.oneByOneTest.core.solution(), new int[] { 0 });
+    t.checkExpect(this.threeByThreeTest.core.solution()[0], 8);
+    int[] threeByThreeSolution = this.threeByThreeTest.core.solution();
+    t.checkExpect(threeByThreeSolution[threeByThreeSolution.length - 1], 0);
+    // consecutive cells of the solution are joined by open passages
+    int[] solution = this.twentyByTwenty.core.solution();
+    for (int i = 1; i < solution.length; i += 1) {
+      int a = Math.min(solution[i - 1], solution[i]);
+      int b = Math.max(solution[i - 1], solution[i]);
+      if (b - a == 1) {
+        t.checkExpect(this.twentyByTwenty.core.grid.hasRight(a), true);
+      }
+      else {
+        t.checkExpect(b - a, 20);
+        t.checkExpect(this.twentyByTwenty.core.grid.hasDown(a), true);
+      }
+    }
+  }
+
+  // tests the method expand for class Maze
+  void testExpand(Tester t) {
+    this.initData();
+    SearchState state = new SearchState(4, new Stack());
+    this.twoByTwoTest.core.expand(0, state);
+    t.checkExpect(state.expanded, 1);
+    t.checkExpect(state.seen.contains(0), true);
+    t.checkExpect(state.worklist.remove(), 2);
+    t.checkExpect(state.worklist.remove(), 1);
+    t.checkExpect(state.worklist.isEmpty(), true);
+    t.checkExpect(state.cameFrom.get(1), 0);
+    t.checkExpect(state.cameFrom.get(2), 0);
+    // already expanded neighbors are not queued again
+    this.twoByTwoTest.core.expand(2, state);
+    t.checkExpect(state.worklist.remove(), 3);
+    t.checkExpect(state.worklist.isEmpty(), true);
+  }
+
+  // tests the method onKeyEvent for class Maze
+  void testOnKeyEvent(Tester t) {
+    this.initData();
+    this.twoByTwoTest.onKeyEvent("p");
+    t.checkExpect(this.twoByTwoTest.togglePath, false);
+    this.twoByTwoTest.onKeyEvent("right");
+    t.checkExpect(this.twoByTwoTest.player.curr, 1);
+    t.checkExpect(this.twoByTwoTest.player.hasVisited(0), true);
+    this.twoByTwoTest.onKeyEvent("left");
+    t.checkExpect(this.twoByTwoTest.player.curr, 0);
+    t.checkExpect(this.twoByTwoTest.player.hasVisited(1), true);
+    this.threeByThreeTest.onKeyEvent("down");
+    t.checkExpect(this.threeByThreeTest.player.curr, 3);
+    t.checkExpect(this.threeByThreeTest.player.hasVisited(0), true);
+    this.threeByThreeTest.onKeyEvent("up");
+    t.checkExpect(this.threeByThreeTest.player.curr, 0);
+    t.checkExpect(this.threeByThreeTest.player.hasVisited(3), true);
+    this.threeByThreeTest.onKeyEvent("down");
+    this.threeByThreeTest.onKeyEvent("right");
+    this.threeByThreeTest.onKeyEvent("down");
+    t.checkExpect(this.threeByThreeTest.wrongMoves, 1);
+    this.threeByThreeTest.onKeyEvent("b");
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 1);
+    t.checkExpect(this.threeByThreeTest.searchState.order.get(0), 0);
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.getClass(), new Queue().getClass());
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(0), true);
+    t.checkExpect(this.threeByThreeTest.searchState.cameFrom.get(3), 0);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 0);
+    this.threeByThreeTest.onKeyEvent("d");
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 1);
+    t.checkExpect(this.threeByThreeTest.searchState.order.get(0), 0);
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.getClass(), new Stack().getClass());
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(0), true);
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(3), false);
+    t.checkExpect(this.threeByThreeTest.searchState.cameFrom.get(3), 0);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 0);
+    int[] previousEdges = this.threeByThreeTest.core.grid.edgesInTree();
+    int[] previousSolution = this.threeByThreeTest.core.solution();
+    this.threeByThreeTest.onKeyEvent("r");
+    t.checkExpect(Arrays.equals(this.threeByThreeTest.core.grid.edgesInTree(), previousEdges),
+        false);
+    t.checkExpect(this.threeByThreeTest.player.curr, 0);
+    t.checkExpect(this.threeByThreeTest.player.moves, 0);
+    t.checkExpect(this.threeByThreeTest.player.hasVisited(0), false);
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 0);
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.isEmpty(), true);
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(0), false);
+    t.checkExpect(Arrays.equals(this.threeByThreeTest.core.solution(), previousSolution), false);
+    t.checkExpect(this.threeByThreeTest.togglePath, true);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 0);
+    t.checkExpect(this.threeByThreeTest.wrongMoves, 0);
+  }
+
+  // tests the validMove method for class Maze
+  void testValidMove(Tester t) {
+    this.initData();
+    t.checkExpect(this.twoByTwoTest.validMove("left"), false);
+    t.checkExpect(this.twoByTwoTest.validMove("right"), true);
+    t.checkExpect(this.twoByTwoTest.validMove("up"), false);
+    t.checkExpect(this.twoByTwoTest.validMove("down"), true);
+    t.checkExpect(this.threeByThreeTest.validMove("left"), false);
+    t.checkExpect(this.threeByThreeTest.validMove("right"), false);
+    t.checkExpect(this.threeByThreeTest.validMove("up"), false);
+    t.checkExpect(this.threeByThreeTest.validMove("down"), true);
+  }
+
+  // tests the onTick method for class Maze
+  void testOnTick(Tester t) {
+    this.initData();
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.isEmpty(), true);
+    this.threeByThreeTest.onTick();
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.isEmpty(), true);
+    this.threeByThreeTest.onKeyEvent("d");
+    this.threeByThreeTest.onTick();
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(3), true);
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 2);
+    t.checkExpect(this.threeByThreeTest.searchState.order.get(1), 3);
+    t.checkExpect(this.threeByThreeTest.searchState.worklist.getClass(), new Stack().getClass());
+    t.checkExpect(this.threeByThreeTest.searchState.cameFrom.get(3), 0);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 0);
+    this.threeByThreeTest.onTick();
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(4), true);
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 3);
+    t.checkExpect(this.threeByThreeTest.searchState.order.get(2), 4);
+    t.checkExpect(this.threeByThreeTest.searchState.cameFrom.get(4), 3);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 0);
+    this.threeByThreeTest.onTick();
+    t.checkExpect(this.threeByThreeTest.searchState.seen.contains(7), true);
+    t.checkExpect(this.threeByThreeTest.searchState.expanded, 4);
+    t.checkExpect(this.threeByThreeTest.searchState.order.get(3), 7);
+    t.checkExpect(this.threeByThreeTest.searchState.cameFrom.get(7), 4);
+    t.checkExpect(this.threeByThreeTest.algoWrongMoves, 1);
+  }
+
+  // tests the method onTick for class Maze during a bidirectional search
+  void testOnTickMeeting(Tester t) {
+    this.initData();
+    this.twentyByTwenty.onKeyEvent("m");
+    t.checkExpect(this.twentyByTwenty.meeting.state, this.twentyByTwenty.searchState);
+    t.checkExpect(this.twentyByTwenty.searchState.expanded, 1);
+    t.checkExpect(this.twentyByTwenty.searchState.order.get(0), 0);
+    int ticks = 0;
+    while (!this.twentyByTwenty.meeting.done()) {
+      this.twentyByTwenty.onTick();
+      ticks += 1;
+    }
+    t.checkExpect(this.twentyByTwenty.meeting.met(), true);
+    t.checkExpect(this.twentyByTwenty.meeting.path(), this.twentyByTwenty.core.solution());
+    t.checkRange(ticks, 1, 400);
+    int offPath = 0;
+    for (int i = 0; i < this.twentyByTwenty.searchState.expanded; i += 1) {
+      if (!this.twentyByTwenty.core.onSolution.contains(
+          this.twentyByTwenty.searchState.order.get(i))) {
+        offPath += 1;
+      }
+    }
+    t.checkExpect(this.twentyByTwenty.algoWrongMoves, offPath);
+    // a key for another search drops the bidirectional one
+    this.twentyByTwenty.onKeyEvent("a");
+    t.checkExpect(this.twentyByTwenty.meeting, null);
+    t.checkExpect(this.twentyByTwenty.searchState.worklist instanceof AStarQueue, true);
+    t.checkExpect(this.twentyByTwenty.searchState.expanded, 1);
+    this.twentyByTwenty.onKeyEvent("m");
+    this.twentyByTwenty.onKeyEvent("r");
+    t.checkExpect(this.twentyByTwenty.meeting, null);
+  }
+
+  // tests the class AStarQueue
+  void testAStarQueue(Tester t) {
+    AStarQueue heap = new AStarQueue(4, 4);
+    t.checkExpect(heap.isEmpty(), true);
+    heap.add(0);
+    t.checkExpect(heap.keys[0], 6L << 32 | 6);
+    t.checkExpect(heap.remove(), 0);
+    t.checkExpect(heap.last, 0);
+    // one step from the start: 1 and 4 are as far from the goal as 5 would be
+    heap.add(1);
+    heap.add(4);
+    t.checkExpect(heap.depth[4], 1);
+    t.checkExpect(heap.remove(), 1);
+    heap.add(5);
+    heap.add(2);
+    t.checkExpect(heap.depth[5], 2);
+    t.checkExpect(heap.remove(), 5);
+    t.checkExpect(heap.remove(), 2);
+    t.checkExpect(heap.remove(), 4);
+    // past the initial capacity, cells come out in order of their keys
+    heap.clear();
+    for (int cell = 15; cell >= 0; cell -= 1) {
+      heap.add(cell);
+      heap.add(cell);
+    }
+    long previous = -1;
+    int count = 0;
+    while (!heap.isEmpty()) {
+      int cell = heap.remove();
+      long key = (long) (heap.depth[cell] + 6 - cell % 4 - cell / 4) << 32
+          | 6 - cell % 4 - cell / 4;
+      t.checkExpect(key >= previous, true);
+      previous = key;
+      count += 1;
+    }
+    t.checkExpect(count, 32);
+    heap.add(3);
+    heap.clear();
+    t.checkExpect(heap.isEmpty(), true);
+    t.checkExpect(heap.last, -1);
+    t.checkException(new IllegalStateException("Cannot remove from an empty heap"), heap,
+        "remove");
+  }
+
+  // tests the class BidirectionalSearch
+  void testBidirectionalSearch(Tester t) {
+    this.initData();
+    Maze[] mazes = { this.oneByOneTest, this.oneByTwoTest, this.twoByTwoTest,
+        this.threeByThreeTest, this.twentyByTwenty };
+    for (Maze maze : mazes) {
+      BidirectionalSearch meeting = new BidirectionalSearch(maze.core,
+          new SearchState(maze.core.grid.size(), new Queue()));
+      while (meeting.step() >= 0) {
+        // runs until the sides meet
+      }
+      t.checkExpect(meeting.met(), true);
+      t.checkExpect(meeting.path(), maze.core.solution());
+    }
+    BidirectionalSearch meeting = new BidirectionalSearch(this.twoByTwoTest.core,
+        new SearchState(4, new Queue()));
+    t.checkExpect(meeting.path(), new int[0]);
+    t.checkExpect(meeting.fromGoal.contains(3), true);
+    t.checkExpect(meeting.step(), 0);
+    t.checkExpect(meeting.met(), false);
+    // the side of the goal has fewer cells waiting now
+    t.checkExpect(meeting.step(), 3);
+    t.checkExpect(meeting.met(), true);
+    t.checkExpect(meeting.meetFrom, 3);
+    t.checkExpect(meeting.meetTo, 2);
+    t.checkExpect(meeting.step(), -1);
+    // walled off, the sides run out of cells without meeting
+    this.twoByTwoTest.core.grid = new MazeGrid(2, 2);
+    meeting = new BidirectionalSearch(this.twoByTwoTest.core, new SearchState(4, new Queue()));
+    t.checkExpect(meeting.step(), 0);
+    t.checkExpect(meeting.step(), 3);
+    t.checkExpect(meeting.done(), true);
+    t.checkExpect(meeting.met(), false);
+  }
+
+  // tests the method search for class MazeCore
+  void testSearchByName(Tester t) {
+    this.initData();
+    MazeCore core = this.twentyByTwenty.core;
+    SearchState state = new SearchState(400, new Queue());
+    int bfs = core.search("bfs", state);
+    t.checkExpect(bfs, core.searchToGoal(state, new Queue()));
+    t.checkExpect(core.search("dfs", state), core.searchToGoal(state, new Stack()));
+    // both guided searches expand fewer cells than breadth-first search
+    t.checkRange(core.search("astar", state), core.solutionLength - 1, bfs);
+    t.checkExpect(state.worklist instanceof AStarQueue, true);
+    t.checkRange(core.search("bidi", state), core.solutionLength - 1, bfs);
+    t.checkException(new IllegalArgumentException("Unknown solver: bogo"), core, "search",
+        "bogo", state);
+    this.twoByTwoTest.core.grid = new MazeGrid(2, 2);
+    t.checkExpect(this.twoByTwoTest.core.search("bidi", new SearchState(4, new Queue())), -1);
+    t.checkExpect(this.twoByTwoTest.core.search("astar", new SearchState(4, new Queue())), -1);
+  }
+
+  // tests the search method for class Maze
+  void testSearch(Tester t) {
+    this.initData();
+    this.twoByTwoTest.searchState.reset(new Stack(), 0);
+    this.twoByTwoTest.search(3, this.twoByTwoTest.searchState);
+    t.checkExpect(this.twoByTwoTest.searchState.seen.contains(0), true);
+    t.checkExpect(this.twoByTwoTest.searchState.expanded, 1);
+    t.checkExpect(this.twoByTwoTest.searchState.worklist.getClass(), new Stack().getClass());
+    t.checkExpect(this.twoByTwoTest.searchState.cameFrom.get(0), -1);
+    t.checkExpect(this.twoByTwoTest.searchState.cameFrom.get(2), 0);
+    t.checkExpect(this.twoByTwoTest.algoWrongMoves, 0);
+    this.twoByTwoTest.search(3, this.twoByTwoTest.searchState);
+    t.checkExpect(this.twoByTwoTest.searchState.seen.contains(1), false);
+    t.checkExpect(this.twoByTwoTest.searchState.seen.contains(2), true);
+    t.checkExpect(this.twoByTwoTest.searchState.expanded, 2);
+    t.checkExpect(this.twoByTwoTest.searchState.order.get(1), 2);
+    t.checkExpect(this.twoByTwoTest.searchState.cameFrom.get(3), 2);
+    t.checkExpect(this.twoByTwoTest.algoWrongMoves, 0);
+    // a search that wanders off the solution counts a wrong move
+    this.twoByTwoTest.searchState.reset(new Queue(), 0);
+    this.twoByTwoTest.search(3, this.twoByTwoTest.searchState);
+    this.twoByTwoTest.search(3, this.twoByTwoTest.searchState);
+    t.checkExpect(this.twoByTwoTest.searchState.seen.contains(1), true);
+    t.checkExpect(this.twoByTwoTest.algoWrongMoves, 1);
+  }
+
+  // tests that onTick runs the steps the scheduler plans for the tick
+  void testOnTickScheduled(Tester t) {
+    this.initData();
+    this.tenByTen.onKeyEvent("b");
+    // a scheduler that has run out of time takes the rest of the search at once
+    this.tenByTen.scheduler = new SearchScheduler(0, 1000000000L, Integer.MAX_VALUE);
+    this.tenByTen.scheduler.start(System.nanoTime());
+    this.tenByTen.onTick();
+    t.checkExpect(this.tenByTen.searchState.seen.contains(98)
+        || this.tenByTen.searchState.seen.contains(89), true);
+    t.checkExpect(this.tenByTen.scheduler.stepNanos > 0, true);
+    // a step cap holds each tick to that many steps
+    this.tenByTen.onKeyEvent("d");
+    this.tenByTen.scheduler = new SearchScheduler(0, 1000000000L, 3);
+    this.tenByTen.onTick();
+    t.checkExpect(this.tenByTen.searchState.expanded, 4);
+  }
+
+  // tests the methods of class SearchScheduler
+  void testSearchScheduler(Tester t) {
+    SearchScheduler scheduler = new SearchScheduler(1000, 100, 50);
+    scheduler.tickNanos = 10;
+    scheduler.start(0);
+    // 1000 steps over the 99 ticks left of the target, ticks measured 10 apart
+    t.checkExpect(scheduler.plan(1000, 10), 11);
+    t.checkExpect(scheduler.tickNanos, 10.0);
+    // the step cap
+    t.checkExpect(scheduler.plan(100000, 20), 50);
+    // the time budget, once steps have been measured
+    scheduler.record(10, 40);
+    t.checkExpect(scheduler.stepNanos, 4.0);
+    t.checkExpect(scheduler.plan(100000, 30), 25);
+    scheduler.record(5, 40);
+    t.checkInexact(scheduler.stepNanos, 4.8, 0.001);
+    scheduler.record(0, 40);
+    t.checkInexact(scheduler.stepNanos, 4.8, 0.001);
+    // past the target, everything that fits
+    t.checkExpect(scheduler.plan(30, 5000), 20);
+    // always at least one step
+    t.checkExpect(scheduler.plan(0, 5010), 1);
+  }
+
+  // tests the methods of classes Stack and Queue
+  void testCollections(Tester t) {
+    Stack stack = new Stack(1);
+    Queue queue = new Queue(1);
+    t.checkExpect(stack.isEmpty(), false);
+    t.checkExpect(queue.isEmpty(), false);
+    // past the initial capacity, to grow around the queue's wrapped head
+    for (int i = 2; i <= 40; i += 1) {
+      stack.add(i);
+      queue.add(i);
+      if (i % 3 == 0) {
+        queue.add(queue.remove());
+      }
+    }
+    t.checkExpect(stack.remove(), 40);
+    t.checkExpect(stack.remove(), 39);
+    t.checkExpect(queue.remove(), 11);
+    t.checkExpect(queue.remove(), 12);
+    stack.clear();
+    queue.clear();
+    t.checkExpect(stack.isEmpty(), true);
+    t.checkExpect(queue.isEmpty(), true);
+    t.checkException(new IllegalStateException("Cannot remove from an empty stack"), stack,
+        "remove");
+    t.checkException(new IllegalStateException("Cannot remove from an empty queue"), queue,
+        "remove");
+  }
+
+  // tests the methods of class CellSet
+  void testCellSet(Tester t) {
+    CellSet cells = new CellSet(130);
+    t.checkExpect(cells.words.length, 3);
+    t.checkExpect(cells.contains(129), false);
+    cells.add(129);
+    cells.add(64);
+    t.checkExpect(cells.contains(129), true);
+    t.checkExpect(cells.contains(64), true);
+    t.checkExpect(cells.contains(1), false);
+    cells.clear();
+    t.checkExpect(cells.contains(129), false);
+  }
+
+  // tests the methods of classes OffHeapCellSet, CellInts and OffHeapCellInts
+  void testOffHeapCells(Tester t) {
+    OffHeapCellSet cells = new OffHeapCellSet(130);
+    t.checkExpect(cells.bits.capacity(), 3);
+    t.checkExpect(cells.bits.isDirect(), true);
+    t.checkExpect(cells.contains(129), false);
+    cells.add(129);
+    cells.add(64);
+    cells.add(65);
+    t.checkExpect(cells.contains(129), true);
+    t.checkExpect(cells.contains(64), true);
+    t.checkExpect(cells.contains(65), true);
+    t.checkExpect(cells.contains(1), false);
+    cells.clear();
+    t.checkExpect(cells.contains(129), false);
+    CellInts ints = new CellInts(3);
+    ints.set(1, 7);
+    t.checkExpect(ints.get(1), 7);
+    ints.fill(-1);
+    t.checkExpect(ints.values, new int[] { -1, -1, -1 });
+    OffHeapCellInts offHeap = new OffHeapCellInts(5);
+    t.checkExpect(offHeap.length, 5);
+    t.checkExpect(offHeap.chunks.length, 1);
+    t.checkExpect(offHeap.chunks[0].capacity(), 5);
+    t.checkExpect(offHeap.get(4), 0);
+    offHeap.set(4, -3);
+    t.checkExpect(offHeap.get(4), -3);
+    offHeap.fill(2);
+    t.checkExpect(offHeap.get(0) + offHeap.get(4), 4);
+  }
+
+  // tests the class OffHeapStorage and mazes kept in it
+  void testOffHeapStorage(Tester t) {
+    this.initData();
+    ICellStorage storage = new OffHeapStorage();
+    t.checkExpect(storage.cellSet(4) instanceof OffHeapCellSet, true);
+    t.checkExpect(storage.cellInts(4) instanceof OffHeapCellInts, true);
+    t.checkExpect(new HeapStorage().cellInts(4) instanceof CellInts, true);
+    t.checkExpect(this.ints(new HeapStorage().cellInts(4)), new int[4]);
+    // every generator and solver gives the same maze and answers either way
+    for (String name : MazeCore.GENERATORS) {
+      MazeCore heap = new MazeCore(20, 20, new Random(1), MazeCore.generator(name, 1));
+      MazeCore direct = new MazeCore(20, 20, new Random(1), MazeCore.generator(name, 1),
+          storage);
+      t.checkExpect(direct.grid.right instanceof OffHeapCellSet, true);
+      t.checkExpect(direct.grid.edgesInTree(), heap.grid.edgesInTree());
+      t.checkExpect(direct.solution(), heap.solution());
+      t.checkExpect(direct.distanceToGoal(0), heap.distanceToGoal(0));
+      for (String solver : MazeCore.SOLVERS) {
+        t.checkExpect(direct.search(solver, new SearchState(400, new Queue(), storage)),
+            heap.search(solver, new SearchState(400, new Queue())));
+      }
+      direct.regenerate();
+      heap.regenerate();
+      t.checkExpect(direct.solution(), heap.solution());
+    }
+    MazeCore kruskal = new MazeCore(20, 20, new Random(1), new KruskalGenerator(1), storage);
+    t.checkExpect(kruskal.solution(), this.twentyByTwenty.core.solution());
+    t.checkExpect(kruskal.solver.cameFrom instanceof OffHeapCellInts, true);
+    // and so does playing it
+    Maze played = new Maze(kruskal);
+    t.checkExpect(played.player.visited instanceof OffHeapCellSet, true);
+    t.checkExpect(played.searchState.seen instanceof OffHeapCellSet, true);
+    played.onKeyEvent(kruskal.grid.hasRight(0) ? "right" : "down");
+    t.checkExpect(played.player.hasVisited(0), true);
+  }
+
+  // tests the class TiledMaze
+  void testTiledMaze(Tester t) {
+    TiledMaze world = new TiledMaze(7, 4, 9 * TiledMaze.tileBytes(4), new KruskalGenerator(1));
+    t.checkExpect(world.capacity, 9);
+    t.checkExpect(TiledMaze.tileBytes(4), 144L);
+    // every tile is a perfect maze, the same every time it is generated
+    MazeGrid tile = world.tile(3, -2);
+    t.checkExpect(tile.edgesInTree().length, 15);
+    // carved by the generator alone, with nothing kept to solve it
+    t.checkExpect(world.carver.grid == tile, true);
+    t.checkExpect(world.carver.solver, null);
+    t.checkExpect(world.carver.distances, null);
+    int[] edges = tile.edgesInTree();
+    t.checkExpect(world.tile(3, -2) == tile, true);
+    t.checkExpect(world.generated, 1L);
+    for (int i = 0; i < 9; i += 1) {
+      world.tile(i, 0);
+    }
+    // the least recently used tile went first, and its grid holds the next one
+    t.checkExpect(world.tiles.size(), 9);
+    t.checkExpect(world.tiles.containsKey(TiledMaze.key(3, -2)), false);
+    t.checkExpect(world.spare == tile, true);
+    t.checkExpect(world.tile(3, -2) == tile, true);
+    t.checkExpect(world.tile(3, -2).edgesInTree(), edges);
+    t.checkExpect(world.tiles.containsKey(TiledMaze.key(0, 0)), false);
+    t.checkExpect(world.generated, 11L);
+    // different tiles and different worlds differ
+    TiledMaze other = new TiledMaze(8, 4, 1 << 20, new KruskalGenerator(1));
+    t.checkExpect(Arrays.equals(other.tile(3, -2).edgesInTree(), edges), false);
+    t.checkExpect(world.tileSeed(1, 2) == world.tileSeed(2, 1), false);
+    t.checkExpect(TiledMaze.key(-1, 2), 0xFFFFFFFF00000002L);
+    // one door joins neighboring tiles, the same seen from either side
+    int doors = 0;
+    for (long y = 0; y < 4; y += 1) {
+      if (world.hasRight(3, y)) {
+        doors += 1;
+        t.checkExpect(y, (long) world.door(0, 0, true));
+      }
+      t.checkExpect(world.hasLeft(4, y), world.hasRight(3, y));
+    }
+    t.checkExpect(doors, 1);
+    t.checkExpect(world.hasDown(-5, -1), -5 + 8 == world.door(-2, -1, false));
+    t.checkExpect(world.hasUp(-5, 0), world.hasDown(-5, -1));
+    // so every cell of a block of whole tiles can reach every other
+    long reached = this.reachable(world, -8, -4, 12);
+    t.checkExpect(reached, 144L);
+    t.checkRange(world.tiles.size(), 1, 10);
+    // and walking far away keeps no more tiles than fit in the budget
+    for (long x = 0; x < 4000; x += 1) {
+      world.hasRight(x, x);
+    }
+    t.checkExpect(world.tiles.size(), 9);
+    t.checkExpect(new BacktrackerGenerator() instanceof IMazeGenerator, true);
+    TiledMaze carved = new TiledMaze(7, 5, 1 << 20, new WilsonGenerator());
+    t.checkExpect(this.reachable(carved, 0, 0, 15), 225L);
+    t.checkConstructorException(new IllegalArgumentException("A tile needs at least one cell, "
+        + "not 0"), "mazes.TiledMaze", 1L, 0, 1L << 20, new KruskalGenerator(1));
+    t.checkConstructorException(new IllegalArgumentException("A budget of 1000 bytes holds "
+        + "fewer than 9 tiles of 4x4 cells"), "mazes.TiledMaze", 1L, 4, 1000L,
+        new KruskalGenerator(1));
+  }
+
+  // returns how many cells of the size x size square of the given world with
+  // the given top left corner can be reached from that corner inside the square
+  long reachable(TiledMaze world, long left, long top, int size) {
+    CellSet seen = new CellSet(size * size);
+    Queue queue = new Queue();
+    queue.add(0);
+    seen.add(0);
+    long count = 0;
+    while (!queue.isEmpty()) {
+      int cell = queue.remove();
+      count += 1;
+      long x = left + cell % size;
+      long y = top + cell / size;
+      int[] next = { cell % size < size - 1 && world.hasRight(x, y) ? cell + 1 : -1,
+          cell % size > 0 && world.hasLeft(x, y) ? cell - 1 : -1,
+          cell / size < size - 1 && world.hasDown(x, y) ? cell + size : -1,
+          cell / size > 0 && world.hasUp(x, y) ? cell - size : -1 };
+      for (int n : next) {
+        if (n >= 0 && !seen.contains(n)) {
+          seen.add(n);
+          queue.add(n);
+        }
+      }
+    }
+    return count;
+  }
+
+  // tests the class EndlessMaze
+  void testEndlessMaze(Tester t) {
+    EndlessMaze endless = new EndlessMaze(3);
+    t.checkExpect(endless.maze.tileSize, EndlessMaze.TILE);
+    t.checkExpect(endless.maze.tiles.size(), 0);
+    ComputedPixelImage view = endless.view;
+    endless.makeScene();
+    // drawing the window around the player keeps only the tiles it shows
+    t.checkExpect(endless.maze.tiles.size(), 4);
+    // into the same image every frame, with a wall wherever a passage is shut
+    t.checkExpect(endless.view == view, true);
+    t.checkExpect(view.getPixel(309, 305).equals(Color.black), !endless.maze.hasRight(0, 0));
+    t.checkExpect(view.getPixel(305, 309).equals(Color.black), !endless.maze.hasDown(0, 0));
+    t.checkExpect(view.getPixel(305, 305).getAlpha(), 0);
+    boolean right = endless.maze.hasRight(0, 0);
+    endless.onKeyEvent("right");
+    t.checkExpect(endless.x, right ? 1L : 0L);
+    t.checkExpect(endless.moves, right ? 1L : 0L);
+    endless.onKeyEvent("q");
+    t.checkExpect(endless.moves, right ? 1L : 0L);
+    // wandering never fills memory, however far it goes
+    Random rand = new Random(5);
+    String[] keys = { "right", "left", "up", "down" };
+    for (int i = 0; i < 20000; i += 1) {
+      endless.onKeyEvent(keys[rand.nextInt(4)]);
+    }
+    t.checkRange(endless.moves, 1L, 20001L);
+    t.checkRange(endless.maze.tiles.size(), 1, endless.maze.capacity + 1);
+  }
+
+  // tests the classes ParallelSearch and FrontierTask
+  void testParallelSearch(Tester t) {
+    // big enough to search in parallel
+    MazeCore sequential = new MazeCore(256, 256, new Random(2));
+    MazeCore parallel = new MazeCore(256, 256, new Random(2), 4);
+    t.checkExpect(sequential.searchesInParallel(), false);
+    t.checkExpect(parallel.searchesInParallel(), true);
+    t.checkExpect(parallel.grid.edgesInTree(), sequential.grid.edgesInTree());
+    // the distances and the solution come out the same
+    t.checkExpect(this.ints(parallel.distances), this.ints(sequential.distances));
+    t.checkExpect(this.ints(parallel.solver.cameFrom), this.ints(sequential.solver.cameFrom));
+    t.checkExpect(parallel.solution(), sequential.solution());
+    t.checkExpect(parallel.solver.expanded, 256 * 256);
+    t.checkExpect(this.ints(parallel.solver.order), this.ints(sequential.solver.order));
+    // searching for the goal stops where a queue does, and leaves the same state
+    int goal = 256 * 256 - 1;
+    SearchState state = new SearchState(256 * 256, new Queue());
+    SearchState queue = new SearchState(256 * 256, new Queue());
+    int reached = parallel.search("bfs", state);
+    t.checkExpect(reached, sequential.search("bfs", queue));
+    t.checkExpect(state.expanded, reached);
+    t.checkExpect(state.order.get(reached), goal);
+    t.checkExpect(state.seen.contains(goal), false);
+    t.checkExpect(this.members(state.seen, goal + 1), this.members(queue.seen, goal + 1));
+    t.checkExpect(this.drain(state.worklist), this.drain(queue.worklist));
+    int length = 0;
+    for (int cell = goal; cell != -1; cell = state.cameFrom.get(cell)) {
+      length += 1;
+    }
+    t.checkExpect(length, sequential.solutionLength);
+    // one pool serves every search of a maze, made only if it searches in parallel
+    t.checkExpect(sequential.pool, null);
+    ForkJoinPool pool = parallel.pool;
+    t.checkExpect(pool.getParallelism(), 4);
+    parallel.regenerate();
+    t.checkExpect(parallel.pool == pool, true);
+    t.checkExpect(parallel.searchPool() == pool, true);
+    // a single cell, and a cell with no way to the goal
+    MazeCore single = new MazeCore(1, 1, new Random(1));
+    ParallelSearch alone = new ParallelSearch(single, new SearchState(1, new Queue()),
+        single.searchPool());
+    t.checkExpect(alone.run(0, 0, null), 0);
+    MazeCore walled = new MazeCore(3, 3, new Random(1));
+    walled.grid.clear();
+    SearchState stuck = new SearchState(9, new Queue());
+    t.checkExpect(new ParallelSearch(walled, stuck, pool).run(0, 8, null), -1);
+    t.checkExpect(stuck.expanded, 1);
+    // levels wider than a chunk are handed to the pool in chunks, and still come
+    // out in the order of a queue: a comb of rows off a spine down the middle,
+    // searched from the middle, has levels of up to 1200 cells
+    MazeCore comb = new MazeCore(new MazeGrid(601, 601), new Random(1), new KruskalGenerator(1));
+    for (int cell = 0; cell < 601 * 601; cell += 1) {
+      if (comb.grid.x(cell) < 600) {
+        comb.grid.open(cell * 2);
+      }
+      if (comb.grid.x(cell) == 300 && comb.grid.y(cell) < 600) {
+        comb.grid.open(cell * 2 + 1);
+      }
+    }
+    int middle = comb.grid.cell(300, 300);
+    int side = comb.grid.cell(0, 300);
+    SearchState wide = new SearchState(601 * 601, new Queue());
+    t.checkExpect(new ParallelSearch(comb, wide, pool).run(middle, -1, null), 601 * 601);
+    SearchState whole = this.queueOrder(comb, middle, -1);
+    t.checkExpect(this.ints(wide.order), this.ints(whole.order));
+    t.checkExpect(this.ints(wide.cameFrom), this.ints(whole.cameFrom));
+    SearchState toSide = this.queueOrder(comb, middle, side);
+    t.checkExpect(new ParallelSearch(comb, wide, pool).run(middle, side, null), toSide.expanded);
+    t.checkExpect(this.drain(wide.worklist), this.drain(toSide.worklist));
+    // claiming a cell twice fails the second time
+    ParallelSearch claims = new ParallelSearch(walled, stuck, pool);
+    claims.claimed = new AtomicLongArray(1);
+    t.checkExpect(claims.claim(5), true);
+    t.checkExpect(claims.claim(5), false);
+    t.checkExpect(claims.isClaimed(5), true);
+    t.checkExpect(claims.isClaimed(4), false);
+    t.checkConstructorException(new IllegalArgumentException("Cannot search with 0 threads"),
+        "mazes.MazeCore", 2, 2, new Random(1), new KruskalGenerator(1), new HeapStorage(), 0);
+  }
+
+  // tests the class PathIndex and the method pathIndex for class MazeCore
+  void testPathIndex(Tester t) {
+    this.initData();
+    MazeCore core = this.twentyByTwenty.core;
+    PathIndex paths = core.pathIndex();
+    t.checkExpect(core.pathIndex() == paths, true);
+    // the root is the bottom right, and every jump lands on an ancestor
+    t.checkExpect(paths.parent.get(399), -1);
+    t.checkExpect(paths.jump.get(399), 399);
+    t.checkExpect(paths.ancestor(0, 0), 399);
+    t.checkExpect(paths.ancestor(0, 54), 0);
+    t.checkExpect(paths.ancestor(0, 53), paths.parent.get(0));
+    // the path between the corners is the solution
+    t.checkExpect(paths.pathLength(0, 399), core.solutionLength - 1);
+    t.checkExpect(paths.path(399, 0), core.solution());
+    t.checkExpect(paths.path(5, 5), new int[] { 5 });
+    t.checkExpect(paths.pathLength(5, 5), 0);
+    // and any other path matches a search between its ends
+    Random rand = new Random(9);
+    for (int i = 0; i < 50; i += 1) {
+      int a = rand.nextInt(400);
+      int b = rand.nextInt(400);
+      int[] path = paths.path(a, b);
+      t.checkExpect(paths.pathLength(a, b), this.searchDistance(core, a, b));
+      t.checkExpect(paths.pathLength(b, a), paths.pathLength(a, b));
+      t.checkExpect(path.length, paths.pathLength(a, b) + 1);
+      t.checkExpect(path[0], a);
+      t.checkExpect(path[path.length - 1], b);
+      for (int j = 1; j < path.length; j += 1) {
+        t.checkExpect(core.grid.isOpen(core.grid.edgeBetween(path[j - 1], path[j])), true);
+      }
+    }
+    // a new maze rebuilds the index in place, without touching the solve
+    ICellInts jump = paths.jump;
+    core.regenerate();
+    t.checkExpect(core.pathsCurrent, false);
+    long expanded = core.metrics.expanded;
+    int solves = core.metrics.runs[MazeMetrics.SOLVE];
+    int solved = core.solver.expanded;
+    t.checkExpect(core.pathIndex() == paths, true);
+    t.checkExpect(core.metrics.expanded, expanded);
+    t.checkExpect(core.metrics.runs[MazeMetrics.SOLVE], solves);
+    t.checkExpect(core.solver.expanded, solved);
+    t.checkExpect(paths.depth.get(0), core.distances.get(0));
+    t.checkExpect(paths.jump == jump, true);
+    t.checkExpect(paths.path(399, 0), core.solution());
+    // a long corridor takes few jumps to climb
+    MazeCore corridor = new MazeCore(1, 1000, new Random(1));
+    PathIndex line = corridor.pathIndex();
+    int cell = 0;
+    int steps = 0;
+    while (line.depth.get(cell) > 0) {
+      cell = line.jump.get(cell);
+      steps += 1;
+    }
+    t.checkRange(steps, 1, 40);
+    t.checkExpect(line.pathLength(0, 999), 999);
+    t.checkExpect(line.meeting(10, 500), 500);
+    // cells cut off from the bottom right have no paths
+    this.twoByTwoTest.core.grid.clear();
+    PathIndex cut = new PathIndex(this.twoByTwoTest.core);
+    t.checkExpect(cut.pathLength(0, 3), -1);
+    t.checkExpect(cut.path(0, 1), new int[0]);
+    t.checkExpect(cut.pathLength(3, 3), 0);
+  }
+
+  // returns the number of steps between the given cells of the given maze, by
+  // a breadth-first search from the first
+  int searchDistance(MazeCore core, int a, int b) {
+    SearchState state = new SearchState(core.grid.size(), new Queue());
+    state.reset(new Queue(), a);
+    while (!state.seen.contains(b)) {
+      int next = state.worklist.remove();
+      if (!state.seen.contains(next)) {
+        core.expand(next, state);
+      }
+    }
+    int steps = 0;
+    for (int cell = b; cell != a; cell = state.cameFrom.get(cell)) {
+      steps += 1;
+    }
+    return steps;
+  }
+
+  // tests the class MazeRaster
+  void testMazeRaster(Tester t) throws IOException {
+    this.initData();
+    // the 2x2 maze has passages 0-1, 0-2 and 2-3, and the solution 0-2-3
+    MazeCore core = this.twoByTwoTest.core;
+    MazeRaster raster = MazeRaster.render(core, 10);
+    t.checkExpect(raster.width, 20);
+    t.checkExpect(raster.pixels.length, 400);
+    t.checkExpect(raster.pixel(5, 5), MazeRaster.SOLUTION);
+    t.checkExpect(raster.pixel(15, 5), MazeRaster.BACKGROUND);
+    t.checkExpect(raster.pixel(15, 15), MazeRaster.GOAL);
+    t.checkExpect(raster.pixel(0, 5), MazeRaster.WALL);
+    t.checkExpect(raster.pixel(9, 5), MazeRaster.SOLUTION);
+    t.checkExpect(raster.pixel(15, 9), MazeRaster.WALL);
+    t.checkExpect(raster.pixel(9, 15), MazeRaster.SOLUTION);
+    t.checkExpect(raster.pixel(5, 19), MazeRaster.WALL);
+    t.checkExpect(raster.pixel(9, 9), MazeRaster.WALL);
+    // the pixels are the image's own
+    t.checkExpect(raster.image.getRGB(15, 15), MazeRaster.GOAL);
+    // one pixel a cell has no room for walls
+    MazeRaster small = MazeRaster.render(core, 1);
+    t.checkExpect(small.pixels, new int[] { MazeRaster.SOLUTION,
+        Viewport.SHADES[1].getRGB(), MazeRaster.SOLUTION, MazeRaster.GOAL });
+    // only the changes are copied on
+    ComputedPixelImage target = new ComputedPixelImage(20, 20);
+    raster.copyChanges(target);
+    t.checkExpect(target.getPixel(15, 15), Color.pink);
+    raster.trail = core.onSolution;
+    raster.solution = false;
+    raster.draw(core, this.twoByTwoTest.view, true);
+    t.checkExpect(raster.pixel(5, 5), MazeRaster.TRAIL);
+    raster.copyChanges(target);
+    t.checkExpect(target.getPixel(5, 5), new Color(32, 205, 32));
+    t.checkExpect(raster.shown[5 * 20 + 5], MazeRaster.TRAIL);
+    Path png = Files.createTempDirectory("mazes").resolve("two.png");
+    raster.writePng(png);
+    BufferedImage read = ImageIO.read(png.toFile());
+    t.checkExpect(read.getWidth(), 20);
+    t.checkExpect(read.getRGB(15, 15), MazeRaster.GOAL);
+    // and the headless runner draws mazes to PNG files
+    Path drawn = png.resolveSibling("headless.png");
+    HeadlessMaze headless = new HeadlessMaze(new String[] { "3", "2", "4", "--png",
+        drawn.toString(), "--scale", "3" });
+    t.checkExpect(headless.scale, 3);
+    t.checkExpect(headless.run(new PrintStream(new ByteArrayOutputStream()))
+        .contains(" pngMillis="), true);
+    t.checkExpect(ImageIO.read(drawn.toFile()).getHeight(), 6);
+    t.checkExpect(new HeadlessMaze(new String[] { "3", "2" }).scale, 4);
+    t.checkConstructorException(new IllegalArgumentException("--png needs a file name"),
+        "mazes.HeadlessMaze", (Object) new String[] { "5", "5", "--png" });
+    t.checkException(new IllegalArgumentException("A cell needs at least one pixel, not 0"),
+        new MazeRaster(1, 1), "render", core, 0);
+    t.checkConstructorException(new IllegalArgumentException("Too many pixels to draw: "
+        + "50000x50000"), "mazes.MazeRaster", 50000, 50000);
+  }
+
+  // tests the class Viewport
+  void testViewport(Tester t) {
+    Viewport small = new Viewport(20, 20);
+    t.checkExpect(small.width, 200);
+    t.checkExpect(small.showsWhole(), true);
+    t.checkExpect(small.detailed(), true);
+    small.zoomOut();
+    t.checkExpect(small.cellPixels, 10);
+    small.zoomIn();
+    t.checkExpect(small.cellPixels, 20);
+    t.checkExpect(small.visibleColumns(), 10);
+    t.checkExpect(small.left, 5);
+    t.checkExpect(small.top, 5);
+    t.checkExpect(small.showsWhole(), false);
+    small.pan(1, 0);
+    t.checkExpect(small.left, 7);
+    small.pan(5, -5);
+    t.checkExpect(small.left, 10);
+    t.checkExpect(small.top, 0);
+    small.follow(12, 3);
+    t.checkExpect(small.left, 10);
+    small.follow(0, 19);
+    t.checkExpect(small.left, 0);
+    t.checkExpect(small.top, 10);
+    small.zoomIn();
+    small.zoomIn();
+    t.checkExpect(small.cellPixels, 40);
+    small.zoomOut();
+    small.zoomOut();
+    t.checkExpect(small.showsWhole(), true);
+    // a maze too big for the screen starts out zoomed out until it fits
+    Viewport big = new Viewport(2000, 2000);
+    t.checkExpect(big.width, 1200);
+    t.checkExpect(big.height, 800);
+    t.checkExpect(big.cellPixels, 1);
+    t.checkExpect(big.pixelCells, 4);
+    t.checkExpect(big.fitsWhole(), true);
+    t.checkExpect(big.detailed(), false);
+    big.zoomIn();
+    t.checkExpect(big.pixelCells, 2);
+    t.checkExpect(big.left, 0);
+    t.checkExpect(big.top, 200);
+    t.checkExpect(big.middleRow(), 1000);
+  }
+
+  // tests the methods drawView and blockColor for class Maze
+  void testDrawView(Tester t) {
+    this.initData();
+    Maze maze = this.twentyByTwenty;
+    maze.onKeyEvent("=");
+    t.checkExpect(maze.view.left, 5);
+    maze.makeScene();
+    // one image of the screen instead of the layers
+    t.checkExpect(maze.core.metrics.images, 4);
+    t.checkExpect(maze.wallLayer, null);
+    ComputedPixelImage view = maze.drawView();
+    MazeGrid grid = maze.core.grid;
+    int cell = grid.cell(5, 5);
+    t.checkExpect(view.getPixel(10, 10), Color.white);
+    t.checkExpect(view.getPixel(19, 10).equals(Color.black), !grid.hasRight(cell));
+    t.checkExpect(view.getPixel(10, 19).equals(Color.black), !grid.hasDown(cell));
+    maze.onKeyEvent("h");
+    maze.onKeyEvent("k");
+    t.checkExpect(maze.view.left, 3);
+    t.checkExpect(maze.view.top, 3);
+    maze.onKeyEvent("h");
+    maze.onKeyEvent("h");
+    t.checkExpect(maze.view.left, 0);
+    t.checkExpect(maze.drawView().getPixel(0, 10), Color.black);
+    for (int i = 0; i < 5; i += 1) {
+      maze.onKeyEvent("l");
+      maze.onKeyEvent("j");
+    }
+    t.checkExpect(maze.view.left, 10);
+    t.checkExpect(maze.drawView().getPixel(190, 190), Color.pink);
+    // the screen follows the player off it
+    maze.onKeyEvent(grid.hasDown(0) ? "down" : "right");
+    t.checkExpect(maze.view.left, 0);
+    t.checkExpect(maze.drawView() == maze.screen, true);
+    t.checkExpect(maze.raster.blockColor(maze.core, maze.player.curr, 1, true),
+        MazeRaster.PLAYER);
+    maze.onKeyEvent("-");
+    t.checkExpect(maze.view.showsWhole(), true);
+    // zoomed all the way out the layers are rasterized again
+    maze.makeScene();
+    t.checkExpect(maze.core.metrics.images, 8);
+    t.checkExpect(maze.wallLayer == null, false);
+    // a maze too big to draw whole is drawn in blocks without walls
+    Maze big = new Maze(300, 200, new Random(1));
+    t.checkExpect(big.view.cellPixels, 2);
+    t.checkExpect(big.view.detailed(), false);
+    ComputedPixelImage blocks = big.drawView();
+    t.checkExpect(blocks.getPixel(0, 0), Color.green);
+    t.checkExpect(blocks.getPixel(599, 399), Color.pink);
+    int middle = big.core.grid.cell(100, 100);
+    t.checkExpect(blocks.getPixel(201, 201),
+        Viewport.SHADES[big.core.grid.degree(middle)]);
+    t.checkExpect(big.raster.blockColor(big.core, big.core.grid.cell(299, 0), 2, false),
+        Viewport.SHADES[big.core.grid.degree(big.core.grid.cell(299, 0))].getRGB());
+    big.onKeyEvent("b");
+    while (big.searchState.expanded < 2) {
+      big.onTick();
+    }
+    big.drawView();
+    t.checkExpect(big.raster.blockColor(big.core, big.searchState.order.get(1), 1, false),
+        MazeRaster.SEARCH);
+    // once solved, the solution shows in the viewport
+    big.lastScene("done");
+    int onPath = big.core.solutionCells.get(big.core.solutionLength / 2);
+    t.checkExpect(big.raster.blockColor(big.core, onPath, 1, false), MazeRaster.SOLUTION);
+    t.checkExpect(big.screen.getPixel(big.core.grid.x(onPath) * 2,
+        big.core.grid.y(onPath) * 2), new Color(87, 206, 250));
+  }
+
+  // tests the methods of class SearchState
+  void testSearchState(Tester t) {
+    SearchState state = new SearchState(4, new Queue());
+    state.reset(new Stack(), 2);
+    t.checkExpect(state.worklist.getClass(), new Stack().getClass());
+    t.checkExpect(state.worklist.remove(), 2);
+    t.checkExpect(state.cameFrom.get(2), -1);
+    state.expand(2);
+    state.discover(3, 2);
+    state.discover(2, 3);
+    t.checkExpect(state.worklist.remove(), 3);
+    t.checkExpect(state.worklist.isEmpty(), true);
+    t.checkExpect(state.cameFrom.get(3), 2);
+    t.checkExpect(state.order.get(0), 2);
+    t.checkExpect(state.expanded, 1);
+    state.reset(state.worklist, 0);
+    t.checkExpect(state.expanded, 0);
+    t.checkExpect(state.seen.contains(2), false);
+  }
+
+  // tests the moveTo method for class Player
+  void testMoveTo(Tester t) {
+    Player p = new Player(1, 4);
+    t.checkExpect(p.hasVisited(1), false);
+    p.moveTo(3);
+    t.checkExpect(p.curr, 3);
+    t.checkExpect(p.hasVisited(1), true);
+    t.checkExpect(p.hasVisited(3), false);
+    p.moveTo(2);
+    t.checkExpect(p.curr, 2);
+    t.checkExpect(p.hasVisited(3), true);
+    p.moveTo(3);
+    t.checkExpect(p.curr, 3);
+    t.checkExpect(p.hasVisited(2), true);
+    t.checkExpect(p.moves, 3);
+    t.checkExpect(Arrays.copyOf(p.path, p.moves), new int[] { 1, 3, 2 });
+    // the log keeps every move, past its initial capacity and revisits
+    for (int i = 0; i < 40; i += 1) {
+      p.moveTo(i % 4);
+    }
+    t.checkExpect(p.moves, 43);
+    t.checkExpect(p.path[42], 2);
+    t.checkExpect(this.members(p.visited, 4), new int[] { 0, 1, 2, 3 });
+  }
+
+}